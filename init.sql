@@ -5,6 +5,13 @@ CREATE DATABASE IF NOT EXISTS test
 
 USE cosmoport;
 
+-- the rest of the schema belongs to the Flyway migrations, which baseline on this table at startup
+DROP TABLE IF EXISTS flyway_schema_history;
+DROP TABLE IF EXISTS ship_id_sequence;
+DROP TABLE IF EXISTS rating_job;
+DROP TABLE IF EXISTS rating_job_chunk;
+DROP TABLE IF EXISTS ship_change_version;
+DROP TABLE IF EXISTS ship_tombstone;
 DROP TABLE IF EXISTS ship;
 
 CREATE TABLE ship
@@ -1,12 +1,30 @@
 package com.space.config;
 
+import com.space.model.Ship;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -15,9 +33,14 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Properties;
+import java.util.UUID;
 
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
 
@@ -25,9 +48,14 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource("classpath:cosmoport.properties")
 public class AppConfig {
 
+    @Autowired
+    private Environment env;
+
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -40,30 +68,93 @@ public class AppConfig {
         return em;
     }
 
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(primaryDataSource())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    @Bean
+    public PoolMetrics poolMetrics() {
+        return new PoolMetrics();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        org.ehcache.config.Configuration configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(Ship.class.getName(), cacheConfig("cache.ship"))
+                .withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, cacheConfig("cache.query"))
+                .withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                        CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(env.getRequiredProperty("cache.timestamps.maxEntries", Long.class))))
+                .build();
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("cosmoport-" + UUID.randomUUID()), configuration);
+        for (String cacheName : cacheManager.getCacheNames()) {
+            cacheManager.enableStatistics(cacheName, true);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheMetrics cacheMetrics() {
+        return new CacheMetrics(hibernateCacheManager());
+    }
+
     @Profile("prod")
+    @Bean
+    public DataSource primaryDataSource() {
+        return new HikariDataSource(mysqlConfig("cosmoport", env.getProperty("db.url")));
+    }
+
+    /**
+     * Read-only transactions go to db.replica.url when it is set; Flyway keeps using the primary directly.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource() {
+        String replicaUrl = env.getProperty("db.replica.url", "");
+        DataSource replica = null;
+        if (!replicaUrl.isEmpty()) {
+            HikariConfig config = mysqlConfig("cosmoport-replica", replicaUrl);
+            config.setReadOnly(true);
+            // PoolMetrics follows a single pool, the primary
+            config.setMetricsTrackerFactory(null);
+            replica = new HikariDataSource(config);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource(), replica);
+    }
+
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        return new LazyConnectionDataSourceProxy(routingDataSource());
     }
 
-    @Profile("dev")
-    @Bean(name = "dataSource")
+    /**
+     * Starts empty: the schema comes from the Flyway migrations, the fixture data from test.sql per test.
+     */
+    @Profile("dev & !pooled")
+    @Bean(name = "primaryDataSource")
     public DataSource dataSourceForTests() {
 
         return new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
-                .setScriptEncoding("UTF-8")
-                .ignoreFailedDrops(true)
-                .addScript("test.sql")
                 .build();
     }
 
+    @Profile("dev & pooled")
+    @Bean(name = "primaryDataSource")
+    public DataSource pooledDataSourceForTests() {
+        HikariConfig config = poolConfig("cosmoport-dev");
+        config.setDriverClassName("org.h2.Driver");
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        return new HikariDataSource(config);
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -80,7 +171,55 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, env.getRequiredProperty("db.batchSize"));
+        properties.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        properties.setProperty(AvailableSettings.ORDER_UPDATES, "true");
+        properties.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+        properties.setProperty(AvailableSettings.USE_QUERY_CACHE, "true");
+        properties.setProperty(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+        properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager());
 
         return properties;
     }
+
+    private CacheConfiguration<Object, Object> cacheConfig(String prefix) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(env.getRequiredProperty(prefix + ".maxEntries", Long.class)))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(
+                        Duration.ofSeconds(env.getRequiredProperty(prefix + ".ttlSeconds", Long.class))))
+                .build();
+    }
+
+    private HikariConfig mysqlConfig(String poolName, String url) {
+        HikariConfig config = poolConfig(poolName);
+        config.setDriverClassName(env.getProperty("db.driver"));
+        config.setJdbcUrl(url);
+        config.setUsername(env.getProperty("db.username"));
+        config.setPassword(env.getProperty("db.password"));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("useCursorFetch", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", env.getProperty("db.pool.statementCacheSize"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getProperty("db.pool.statementCacheSqlLimit"));
+        // setReadOnly/setAutoCommit at every transaction boundary are answered locally instead of with a round trip
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        return config;
+    }
+
+    private HikariConfig poolConfig(String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setMinimumIdle(env.getRequiredProperty("db.pool.minIdle", Integer.class));
+        config.setMaximumPoolSize(env.getRequiredProperty("db.pool.maxSize", Integer.class));
+        config.setConnectionTimeout(env.getRequiredProperty("db.pool.connectionTimeoutMs", Long.class));
+        config.setIdleTimeout(env.getRequiredProperty("db.pool.idleTimeoutMs", Long.class));
+        config.setMaxLifetime(env.getRequiredProperty("db.pool.maxLifetimeMs", Long.class));
+        config.setKeepaliveTime(env.getRequiredProperty("db.pool.keepaliveMs", Long.class));
+        config.setValidationTimeout(env.getRequiredProperty("db.pool.validationTimeoutMs", Long.class));
+        config.setLeakDetectionThreshold(env.getRequiredProperty("db.pool.leakDetectionThresholdMs", Long.class));
+        config.setMetricsTrackerFactory(poolMetrics());
+        config.setRegisterMbeans(true);
+        return config;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.space.config;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CacheMetrics {
+
+    private static final String[] ATTRIBUTES = {
+            "CacheHits", "CacheMisses", "CacheHitPercentage", "CacheGets", "CachePuts", "CacheRemovals", "CacheEvictions"};
+
+    private final CacheManager cacheManager;
+
+    public CacheMetrics(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public Map<String, Object> snapshot() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Map<String, Object> region = new LinkedHashMap<>();
+            try {
+                ObjectName name = new ObjectName("javax.cache:type=CacheStatistics"
+                        + ",CacheManager=" + cacheManager.getURI()
+                        + ",Cache=" + cacheName);
+                for (String attribute : ATTRIBUTES) {
+                    region.put(attribute, server.getAttribute(name, attribute));
+                }
+            } catch (JMException e) {
+                region.put("error", e.getMessage());
+            }
+            snapshot.put(cacheName, region);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,106 @@
+package com.space.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Handles controller methods that return a {@link CompletionStage}. In async mode the request is released
+ * to the container and completed when the stage completes; otherwise the already completed result is
+ * written directly, so the same handlers serve both modes.
+ */
+public class CompletionStageReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+
+    private final DbExecutors executors;
+    private final Supplier<List<HandlerMethodReturnValueHandler>> handlers;
+
+    public CompletionStageReturnValueHandler(DbExecutors executors, Supplier<List<HandlerMethodReturnValueHandler>> handlers) {
+        this.executors = executors;
+        this.handlers = handlers;
+    }
+
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue instanceof CompletionStage;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletionStage<?> stage = (CompletionStage<?>) returnValue;
+        if (executors.isAsync()) {
+            DeferredResult<Object> deferred = new DeferredResult<>();
+            stage.whenComplete((result, error) -> {
+                if (error != null) {
+                    deferred.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    deferred.setResult(result);
+                }
+            });
+            WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferred, mavContainer);
+            return;
+        }
+
+        Object result;
+        try {
+            result = stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        MethodParameter resultType = new ResultParameter(returnType);
+        for (HandlerMethodReturnValueHandler handler : handlers.get()) {
+            if (handler != this && handler.supportsReturnType(resultType)) {
+                handler.handleReturnValue(result, resultType, mavContainer, webRequest);
+                return;
+            }
+        }
+        throw new IllegalStateException("No return value handler for " + resultType.getGenericParameterType());
+    }
+
+    // the return type of the handler method with the CompletionStage unwrapped
+    private static class ResultParameter extends MethodParameter {
+
+        private final ResolvableType resultType;
+
+        ResultParameter(MethodParameter original) {
+            super(original);
+            this.resultType = ResolvableType.forMethodParameter(original).as(CompletionStage.class).getGeneric();
+        }
+
+        private ResultParameter(ResultParameter original) {
+            super(original);
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultType.resolve(Object.class);
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType.getType();
+        }
+
+        @Override
+        public ResultParameter clone() {
+            return new ResultParameter(this);
+        }
+    }
+}
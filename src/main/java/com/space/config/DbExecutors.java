@@ -0,0 +1,201 @@
+package com.space.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executors that run database work for the web layer off the servlet container threads,
+ * with separate pools for reads and writes. When async mode is off the work runs on the calling thread.
+ * <p>
+ * In virtual mode every task gets its own virtual thread and the pool bound becomes a limit on tasks in
+ * flight (threads + queue), so a blocked JDBC call costs no platform thread. Virtual threads are created
+ * reflectively, which keeps the class compiling for Java 8; the mode itself needs Java 21.
+ */
+public class DbExecutors {
+
+    private final boolean async;
+    private final boolean virtual;
+    private final Lane reads;
+    private final Lane writes;
+
+    public DbExecutors(boolean async, int readThreads, int readQueue, int writeThreads, int writeQueue) {
+        this(async, false, readThreads, readQueue, writeThreads, writeQueue);
+    }
+
+    public DbExecutors(boolean async, boolean virtual, int readThreads, int readQueue, int writeThreads, int writeQueue) {
+        this.async = async;
+        this.virtual = virtual;
+        if (virtual) {
+            this.reads = new VirtualLane("db-read-", readThreads + readQueue);
+            this.writes = new VirtualLane("db-write-", writeThreads + writeQueue);
+        } else {
+            this.reads = new PooledLane("db-read-", readThreads, readQueue);
+            this.writes = new PooledLane("db-write-", writeThreads, writeQueue);
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public <T> CompletableFuture<T> read(Supplier<T> task) {
+        return submit(reads, task);
+    }
+
+    public <T> CompletableFuture<T> write(Supplier<T> task) {
+        return submit(writes, task);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("async", async);
+        snapshot.put("virtual", virtual);
+        snapshot.put("read", reads.snapshot());
+        snapshot.put("write", writes.snapshot());
+        return snapshot;
+    }
+
+    public void shutdown() {
+        reads.shutdown();
+        writes.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Lane lane, Supplier<T> task) {
+        if (!async) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        try {
+            return lane.submit(task);
+        } catch (RejectedExecutionException e) {
+            lane.rejections.increment();
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    private abstract static class Lane {
+        final LongAdder rejections = new LongAdder();
+
+        abstract <T> CompletableFuture<T> submit(Supplier<T> task);
+
+        abstract Map<String, Object> snapshot();
+
+        abstract void shutdown();
+    }
+
+    private static class PooledLane extends Lane {
+        private final ThreadPoolExecutor executor;
+
+        PooledLane(String prefix, int threads, int queue) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queue), runnable -> {
+                Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+
+        @Override
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("threads", executor.getMaximumPoolSize());
+            snapshot.put("poolSize", executor.getPoolSize());
+            snapshot.put("active", executor.getActiveCount());
+            snapshot.put("queued", executor.getQueue().size());
+            snapshot.put("queueRemaining", executor.getQueue().remainingCapacity());
+            snapshot.put("completed", executor.getCompletedTaskCount());
+            snapshot.put("rejected", rejections.sum());
+            return snapshot;
+        }
+
+        @Override
+        void shutdown() {
+            executor.shutdown();
+        }
+    }
+
+    private static class VirtualLane extends Lane {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final int limit;
+        private final LongAdder completed = new LongAdder();
+
+        VirtualLane(String prefix, int limit) {
+            this.executor = virtualThreadPerTaskExecutor(prefix);
+            this.permits = new Semaphore(limit);
+            this.limit = limit;
+        }
+
+        @Override
+        <T> CompletableFuture<T> submit(Supplier<T> task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("too many tasks in flight");
+            }
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.get();
+                    } finally {
+                        completed.increment();
+                        permits.release();
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("limit", limit);
+            snapshot.put("active", limit - permits.availablePermits());
+            snapshot.put("completed", completed.sum());
+            snapshot.put("rejected", rejections.sum());
+            return snapshot;
+        }
+
+        @Override
+        void shutdown() {
+            executor.shutdown();
+        }
+
+        private static ExecutorService virtualThreadPerTaskExecutor(String prefix) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+                ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("web.async.virtual requires Java 21 or newer", e);
+            }
+        }
+    }
+}
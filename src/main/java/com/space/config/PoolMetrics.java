@@ -0,0 +1,75 @@
+package com.space.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                created.increment();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        PoolStats stats = poolStats;
+        snapshot.put("pool", poolName);
+        if (stats != null) {
+            snapshot.put("active", stats.getActiveConnections());
+            snapshot.put("idle", stats.getIdleConnections());
+            snapshot.put("total", stats.getTotalConnections());
+            snapshot.put("pending", stats.getPendingThreads());
+            snapshot.put("max", stats.getMaxConnections());
+            snapshot.put("min", stats.getMinConnections());
+        }
+        long count = acquireCount.sum();
+        snapshot.put("acquired", count);
+        snapshot.put("avgWaitMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / count));
+        snapshot.put("maxWaitMicros", TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()));
+        snapshot.put("avgUsageMillis", count == 0 ? 0 : usageMillis.sum() / count);
+        snapshot.put("timeouts", timeouts.sum());
+        snapshot.put("created", created.sum());
+        return snapshot;
+    }
+}
@@ -0,0 +1,87 @@
+package com.space.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * The transaction's read-only flag is only known after it began, so this has to sit behind a
+ * LazyConnectionDataSourceProxy, which also spares transactions that never run a statement a pool checkout.
+ * Without a replica both routes lead to the primary. Reads that must agree with the in-memory change version,
+ * such as tagged responses and deltas, can be pinned to the primary with {@link #onPrimary(Supplier)}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource replica;
+    private final LongAdder readConnections = new LongAdder();
+    private final LongAdder pinnedReadConnections = new LongAdder();
+    private final LongAdder writeConnections = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        this.replica = replica;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica != null ? replica : primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code read} with read-only transactions on the primary. The connection is only picked for the first
+     * statement, so this may also be entered inside a read-only transaction that has not run one yet.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean pinned = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(true);
+        try {
+            return read.get();
+        } finally {
+            PINNED_TO_PRIMARY.set(pinned);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (PINNED_TO_PRIMARY.get()) {
+                pinnedReadConnections.increment();
+                return PRIMARY;
+            }
+            readConnections.increment();
+            return REPLICA;
+        }
+        writeConnections.increment();
+        return PRIMARY;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("replica", replica != null);
+        snapshot.put("readConnections", readConnections.sum());
+        snapshot.put("pinnedReadConnections", pinnedReadConnections.sum());
+        snapshot.put("writeConnections", writeConnections.sum());
+        return snapshot;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (replica instanceof Closeable) {
+            ((Closeable) replica).close();
+        }
+    }
+}
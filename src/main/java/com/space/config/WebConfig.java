@@ -2,19 +2,29 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.JstlView;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Configuration
@@ -22,6 +32,30 @@ import java.util.List;
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DbExecutors dbExecutors() {
+        return new DbExecutors(
+                env.getRequiredProperty("web.async.enabled", Boolean.class),
+                env.getRequiredProperty("web.async.virtual", Boolean.class),
+                env.getRequiredProperty("web.async.read.threads", Integer.class),
+                env.getRequiredProperty("web.async.read.queue", Integer.class),
+                env.getRequiredProperty("web.async.write.threads", Integer.class),
+                env.getRequiredProperty("web.async.write.queue", Integer.class));
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -44,9 +78,18 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new StringHttpMessageConverter(StandardCharsets.UTF_8));
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(env.getRequiredProperty("web.async.timeoutMs", Long.class));
+    }
+
+    @Override
+    public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+        handlers.add(new CompletionStageReturnValueHandler(dbExecutors(),
+                () -> context.getBean(RequestMappingHandlerAdapter.class).getReturnValueHandlers()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Validators for conditional requests. Collection responses are tagged with the last committed change version,
+ * a single ship with its id and own change version; both tags are strong because a version names exact content.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    static String fleetTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String shipTag(Ship ship) {
+        return "\"" + ship.getId() + "." + ship.getChangeVersion() + "\"";
+    }
+
+    /**
+     * If-None-Match wins over If-Modified-Since when both are present, as RFC 7232 requires.
+     */
+    static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        return notModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), ifModifiedSince(request), etag, lastModified);
+    }
+
+    /**
+     * Same as {@link #notModified(HttpServletRequest, String, long)} for headers read earlier on the request thread.
+     */
+    static boolean notModified(String ifNoneMatch, long ifModifiedSince, String etag, long lastModified) {
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag, false);
+        }
+        // HTTP dates have whole seconds
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * The If-Modified-Since date, or -1 when it is absent or malformed.
+     */
+    static long ifModifiedSince(HttpServletRequest request) {
+        try {
+            return request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Compares an If-Match or If-None-Match header with {@code etag}; weak tags never match a strong comparison.
+     */
+    static boolean matches(String header, String etag, boolean strong) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (strong) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModifiedResponse(String etag, long lastModified) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified).build();
+    }
+
+    static <T> ResponseEntity<T> withValidators(ResponseEntity<T> response, String etag, long lastModified) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(response.getBody());
+    }
+}
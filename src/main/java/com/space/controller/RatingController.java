@@ -0,0 +1,66 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import com.space.service.ShipRatingJob;
+import com.space.service.ShipService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping(value = "/rest/ratings")
+public class RatingController {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipRatingJob ratingJob;
+
+    @PostMapping("/recompute")
+    public ResponseEntity<Map<String, Object>> recompute(
+            @RequestParam(value = "referenceYear", required = false) Integer referenceYear
+    ) {
+        int year = referenceYear == null ? shipService.getReferenceYear() : referenceYear;
+        // ships may be produced up to 3019, and a rating needs a reference year after production
+        if (year < Ship.CURRENT_YEAR) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(ratingJob.start(year), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @GetMapping("/recompute")
+    public ResponseEntity<Map<String, Object>> progress() {
+        Optional<Map<String, Object>> progress = ratingJob.progress();
+        return progress.map(body -> new ResponseEntity<>(body, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/ships/{id}")
+    public ResponseEntity<Ship> recomputeShip(@PathVariable Long id) {
+        if (id < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return shipService.recomputeRating(id)
+                    .map(ship -> new ResponseEntity<>(ship, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+}
@@ -1,206 +1,505 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.DbExecutors;
+import com.space.config.ReadWriteRoutingDataSource;
 import com.space.model.Ship;
-import com.space.model.ShipType;
+import com.space.model.ShipChange;
+import com.space.model.ShipCursor;
+import com.space.model.ShipDates;
+import com.space.model.ShipDelta;
+import com.space.model.ShipFacets;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipOrder;
+import com.space.service.ShipChangeFeed;
 import com.space.service.ShipService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Calendar;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping(value = "/rest")
 public class RestShipController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_CHANGES_LIMIT = 10000;
+
     @Autowired
     private ShipService shipService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DbExecutors executors;
+
+    @Autowired
+    private ShipChangeFeed changeFeed;
+
+    @Value("${db.importChunkSize}")
+    private int importChunkSize;
+
+    @Value("${ship.changes.timeoutMs}")
+    private long changesTimeoutMs;
+
     @GetMapping("/ships")
     public @ResponseBody
-    List<Ship> showAllShips(
+    CompletableFuture<ResponseEntity<List<Ship>>> showAllShips(
             @RequestParam(value = "order", defaultValue = "ID") String shipOrder,
             @RequestParam(value = "pageNumber", defaultValue = "0") int pageNumber,
             @RequestParam(value = "pageSize", defaultValue = "3") int pageSize,
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "planet", required = false) String planet,
-            @RequestParam(value = "shipType", required = false) ShipType shipType,
-            @RequestParam(value = "after", required = false) Long prodAfter,
-            @RequestParam(value = "before", required = false) Long prodBefore,
-            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-            @RequestParam(value = "minRating", required = false) Double minRating,
-            @RequestParam(value = "maxRating", required = false) Double maxRating
+            @RequestParam(value = "cursor", required = false) String cursor,
+            ShipFilter filter,
+            HttpServletRequest request
     ) {
+        // the version is read before the data, so a tag never claims content newer than what was sent
+        long lastModified = shipService.getLastModified();
+        String etag = ConditionalRequests.fleetTag(shipService.getCommittedVersion());
+        if (ConditionalRequests.notModified(request, etag, lastModified)) {
+            return CompletableFuture.completedFuture(ConditionalRequests.notModifiedResponse(etag, lastModified));
+        }
+        // the tag is the primary's version, so the body is read there too; a lagging replica would send older content
+        return executors.read(() -> ReadWriteRoutingDataSource.onPrimary(() -> {
+            ShipOrder order = ShipOrder.valueOf(shipOrder);
+            ResponseEntity<List<Ship>> response;
+            if (cursor != null) {
+                response = getShipsAfterCursor(shipService.filterBy(filter), order, cursor, pageSize);
+            } else {
+                Pageable pageable = PageRequest.of(pageNumber, pageSize, sortBy(order));
+                response = new ResponseEntity<>(shipService.getAllShips(filter, pageable), HttpStatus.OK);
+            }
+            return ConditionalRequests.withValidators(response, etag, lastModified);
+        }));
+    }
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(ShipOrder.valueOf(shipOrder).getFieldName()));
-        return geShipsWithSpecification(name, planet, shipType, prodAfter, prodBefore, isUsed,
-                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, pageable);
+    @GetMapping("ships/page")
+    public CompletableFuture<ShipPage> showShipsPage(
+            @RequestParam(value = "order", defaultValue = "ID") String shipOrder,
+            @RequestParam(value = "pageNumber", defaultValue = "0") int pageNumber,
+            @RequestParam(value = "pageSize", defaultValue = "3") int pageSize,
+            @RequestParam(value = "withTotal", defaultValue = "true") boolean withTotal,
+            ShipFilter filter
+    ) {
+        return executors.read(() -> {
+            Pageable pageable = PageRequest.of(pageNumber, pageSize, sortBy(ShipOrder.valueOf(shipOrder)));
+            return withTotal
+                    ? ShipPage.of(shipService.getShipsPage(filter, pageable))
+                    : ShipPage.of(shipService.getShipsSlice(shipService.filterBy(filter), pageable));
+        });
     }
 
     @GetMapping("ships/count")
-    public Integer getShipsCount(
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "planet", required = false) String planet,
-            @RequestParam(value = "shipType", required = false) ShipType shipType,
-            @RequestParam(value = "after", required = false) Long prodAfter,
-            @RequestParam(value = "before", required = false) Long prodBefore,
-            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-            @RequestParam(value = "minRating", required = false) Double minRating,
-            @RequestParam(value = "maxRating", required = false) Double maxRating
+    public CompletableFuture<ResponseEntity<Long>> getShipsCount(ShipFilter filter, HttpServletRequest request) {
+        long lastModified = shipService.getLastModified();
+        String etag = ConditionalRequests.fleetTag(shipService.getCommittedVersion());
+        if (ConditionalRequests.notModified(request, etag, lastModified)) {
+            return CompletableFuture.completedFuture(ConditionalRequests.notModifiedResponse(etag, lastModified));
+        }
+        return executors.read(() -> ReadWriteRoutingDataSource.onPrimary(() -> ConditionalRequests.withValidators(
+                new ResponseEntity<>(shipService.countShips(filter), HttpStatus.OK), etag, lastModified)));
+    }
+
+    @GetMapping("ships/stats")
+    public CompletableFuture<List<ShipGroupStats>> getShipsStats(
+            @RequestParam(value = "groupBy", defaultValue = "SHIP_TYPE") String groupBy,
+            ShipFilter filter
     ) {
-        Pageable pageable = Pageable.unpaged();
-        List<Ship> shipList = geShipsWithSpecification(name, planet, shipType, prodAfter, prodBefore, isUsed,
-                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, pageable);
-        return shipList.size();
+        return executors.read(() -> shipService.aggregateShips(filter, ShipGrouping.valueOf(groupBy.toUpperCase(Locale.ROOT))));
     }
 
-    @GetMapping("ships/{id}")
-    public ResponseEntity<Ship> getShip(@PathVariable Long id) {
-        Optional<Ship> optionalShip = shipService.getShipById(id);
-        if (id < 1) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
-        if (!optionalShip.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        return new ResponseEntity<>(optionalShip.get(), HttpStatus.OK);
+    @GetMapping("ships/facets")
+    public CompletableFuture<ResponseEntity<ShipFacets>> getShipsFacets(
+            @RequestParam(value = "planets", defaultValue = "10") int topPlanets,
+            ShipFilter filter
+    ) {
+        return executors.read(() -> {
+            if (topPlanets < 0) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(shipService.getFacets(filter, topPlanets), HttpStatus.OK);
+        });
     }
 
-    @PostMapping("ships/")
-    public ResponseEntity<Ship> createShip(@RequestBody Ship ship) {
-        if (ship == null
-            || ship.getName() == null
-            || ship.getPlanet() == null
-            || ship.getShipType() == null
-            || ship.getProdDate() == null
-            || ship.getSpeed() == null
-            || ship.getCrewSize() == null)
-        {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    @GetMapping("ships/export")
+    public void exportShips(
+            @RequestParam(value = "format", defaultValue = "NDJSON") String format,
+            @RequestParam(value = "order", defaultValue = "ID") String shipOrder,
+            ShipFilter filter,
+            HttpServletResponse response
+    ) throws IOException {
+        ShipFormat exportFormat = ShipFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ShipExportWriter writer = new ShipExportWriter(exportFormat, objectMapper, response.getOutputStream());
+        try {
+            shipService.exportShips(filter, sortBy(ShipOrder.valueOf(shipOrder)), ship -> {
+                try {
+                    writer.write(ship);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        if (ship.isUsed() == null) {
-            ship.setUsed(false);
+        writer.finish();
+    }
+
+    @PostMapping("ships/import")
+    public ShipImportResult importShips(
+            @RequestParam(value = "format", defaultValue = "NDJSON") String format,
+            HttpServletRequest request
+    ) throws IOException {
+        ShipImportReader reader = new ShipImportReader(ShipFormat.valueOf(format.toUpperCase(Locale.ROOT)),
+                objectMapper, request.getInputStream());
+        ShipImportResult result = new ShipImportResult();
+        List<Ship> chunk = new ArrayList<>(importChunkSize);
+        while (true) {
+            Ship ship;
+            try {
+                ship = reader.next();
+            } catch (IllegalArgumentException e) {
+                result.reject(reader.getLine(), e.getMessage());
+                continue;
+            }
+            if (ship == null) {
+                break;
+            }
+            String reason = rejectReason(ship);
+            if (reason != null) {
+                result.reject(reader.getLine(), reason);
+                continue;
+            }
+            if (ship.isUsed() == null) {
+                ship.setUsed(false);
+            }
+            ship.setId(null);
+            ship.setRating(ship.calculateRating(shipService.getReferenceYear()));
+            chunk.add(ship);
+            if (chunk.size() == importChunkSize) {
+                shipService.saveShips(chunk);
+                result.accept(chunk.size());
+                chunk = new ArrayList<>(importChunkSize);
+            }
         }
-        if (validateShipFields(ship)) {
-            ship.setRating(ship.calculateRating());
-            shipService.saveShip(ship);
-            return new ResponseEntity<>(ship, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        if (!chunk.isEmpty()) {
+            shipService.saveShips(chunk);
+            result.accept(chunk.size());
         }
+        return result;
+    }
+
+    @GetMapping("ships/changes")
+    public CompletableFuture<ResponseEntity<ShipDelta>> getShipChanges(
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit
+    ) {
+        return executors.read(() -> {
+            if (since < 0 || limit < 1 || limit > MAX_CHANGES_LIMIT) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(shipService.getChangesSince(since, afterId, limit), HttpStatus.OK);
+        });
+    }
+
+    @GetMapping(value = "ships/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamShipChanges(ShipFilter filter) {
+        SseEmitter emitter = new SseEmitter(changesTimeoutMs);
+        ShipChangeFeed.Subscription subscription = changeFeed.subscribe(filter::matches, new ShipChangeFeed.Sink() {
+            @Override
+            public void send(ShipChange change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getSequence()))
+                        .name(change.getType().name().toLowerCase(Locale.ROOT))
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close(boolean evicted) {
+                if (evicted) {
+                    try {
+                        emitter.send(SseEmitter.event().name("evicted").data("buffer overflow"));
+                    } catch (IOException | IllegalStateException e) {
+                        // the client is gone or too slow to read, so completing is all that is left
+                    }
+                }
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    @GetMapping("ships/{id}")
+    public CompletableFuture<ResponseEntity<Ship>> getShip(@PathVariable Long id, HttpServletRequest request) {
+        long lastModified = shipService.getLastModified();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        long ifModifiedSince = ConditionalRequests.ifModifiedSince(request);
+        return executors.read(() -> {
+            // a client sends this tag back in If-Match, which is checked against the primary
+            Optional<Ship> optionalShip = ReadWriteRoutingDataSource.onPrimary(() -> shipService.getShipById(id));
+            if (id < 1) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            if (!optionalShip.isPresent()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            // the lookup is served from the second-level cache, so a revalidation costs no query once warm
+            String etag = ConditionalRequests.shipTag(optionalShip.get());
+            if (ConditionalRequests.notModified(ifNoneMatch, ifModifiedSince, etag, lastModified)) {
+                return ConditionalRequests.notModifiedResponse(etag, lastModified);
+            }
+            return ConditionalRequests.withValidators(new ResponseEntity<>(optionalShip.get(), HttpStatus.OK), etag, lastModified);
+        });
+    }
+
+    @PostMapping("ships/")
+    public CompletableFuture<ResponseEntity<Ship>> createShip(@RequestBody Ship ship) {
+        return executors.write(() -> {
+            if (!hasRequiredFields(ship)) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            if (ship.isUsed() == null) {
+                ship.setUsed(false);
+            }
+            if (validateShipFields(ship)) {
+                ship.setRating(ship.calculateRating(shipService.getReferenceYear()));
+                shipService.saveShip(ship);
+                return new ResponseEntity<>(ship, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        });
+    }
 
+    @PostMapping("ships/bulk")
+    public CompletableFuture<ResponseEntity<List<Ship>>> createShips(@RequestBody List<Ship> ships) {
+        return executors.write(() -> {
+            if (ships == null || ships.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            for (Ship ship : ships) {
+                if (!hasRequiredFields(ship) || !validateShipFields(ship)) {
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                if (ship.isUsed() == null) {
+                    ship.setUsed(false);
+                }
+                ship.setId(null);
+                ship.setRating(ship.calculateRating(shipService.getReferenceYear()));
+            }
+            shipService.saveShips(ships);
+            return new ResponseEntity<>(ships, HttpStatus.OK);
+        });
+    }
+
+    @PostMapping("ships/bulk/update")
+    public CompletableFuture<ResponseEntity<ShipBulkResult>> updateShips(ShipFilter filter, @RequestBody Ship changes) {
+        return executors.write(() -> {
+            if (filter.isEmpty() || !hasAnyField(changes) || !validateShipFields(changes)) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(new ShipBulkResult(shipService.updateShips(filter, changes)), HttpStatus.OK);
+        });
+    }
 
+    @DeleteMapping("ships/bulk")
+    public CompletableFuture<ResponseEntity<ShipBulkResult>> deleteShips(ShipFilter filter) {
+        return executors.write(() -> {
+            if (filter.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(new ShipBulkResult(shipService.deleteShips(filter)), HttpStatus.OK);
+        });
     }
 
     @PostMapping("ships/{id}")
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<Ship> updateShip(@PathVariable Long id, @RequestBody Ship updatedShip) {
-        if (!validateShipFields(updatedShip)) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public CompletableFuture<ResponseEntity<Ship>> updateShip(
+            @PathVariable Long id,
+            @RequestBody Ship updatedShip,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return executors.write(() -> {
+            if (!validateShipFields(updatedShip)) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            if (id < 1) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            Optional<Ship> editedShip;
+            if (ifMatch == null || ifMatch.trim().equals("*")) {
+                editedShip = shipService.updateShip(id, updatedShip);
+            } else {
+                // a replica may not have the version the client saw yet, which would fail the check for nothing
+                Optional<Ship> current = ReadWriteRoutingDataSource.onPrimary(() -> shipService.getShipById(id));
+                if (!current.isPresent()) {
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                }
+                if (!ConditionalRequests.matches(ifMatch, ConditionalRequests.shipTag(current.get()), true)) {
+                    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+                }
+                editedShip = shipService.updateShip(id, updatedShip, current.get().getChangeVersion());
+                if (!editedShip.isPresent()) {
+                    // changed or deleted between the check and the update
+                    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+                }
+            }
+            if (!editedShip.isPresent()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return ConditionalRequests.withValidators(new ResponseEntity<>(editedShip.get(), HttpStatus.OK),
+                    ConditionalRequests.shipTag(editedShip.get()), shipService.getLastModified());
+        });
+    }
+
+    @DeleteMapping("/ships/{id}")
+    public CompletableFuture<ResponseEntity<Ship>> deleteShip(@PathVariable Long id) {
+        return executors.write(() -> {
+            if (id < 1) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            if (!shipService.deleteShip(id)) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleRejected() {
+        return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConflict() {
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
 
-        Optional<Ship> optionalShip = shipService.getShipById(id);
-        if (id < 1) {
+    private ResponseEntity<List<Ship>> getShipsAfterCursor(Specification<Ship> specification, ShipOrder order,
+                                                           String cursor, int pageSize) {
+        if (pageSize < 1) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        if (!optionalShip.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        Ship editedShip = optionalShip.get();
-        if (updatedShip.getName() != null) {
-            editedShip.setName(updatedShip.getName());
-        }
-        if (updatedShip.getPlanet() != null) {
-            editedShip.setPlanet(updatedShip.getPlanet());
-        }
-        if (updatedShip.getShipType() != null) {
-            editedShip.setShipType(updatedShip.getShipType());
-        }
-        if (updatedShip.getProdDate() != null) {
-            editedShip.setProdDate(updatedShip.getProdDate());
-        }
-        if (updatedShip.isUsed() != null) {
-            editedShip.setUsed(updatedShip.isUsed());
-        }
-        if (updatedShip.getSpeed() != null) {
-            editedShip.setSpeed(updatedShip.getSpeed());
+        ShipCursor after;
+        try {
+            after = cursor.isEmpty() ? null : ShipCursor.decode(cursor, order);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        if (updatedShip.getCrewSize() != null) {
-            editedShip.setCrewSize(updatedShip.getCrewSize());
+
+        List<Ship> ships = shipService.getShipsAfter(specification, order, after, pageSize);
+        HttpHeaders headers = new HttpHeaders();
+        if (ships.size() == pageSize) {
+            headers.set(NEXT_CURSOR_HEADER, ShipCursor.of(order, ships.get(ships.size() - 1)).encode());
         }
-        editedShip.setRating(editedShip.calculateRating());
+        return new ResponseEntity<>(ships, headers, HttpStatus.OK);
+    }
 
-        shipService.saveShip(editedShip);
+    private static Sort sortBy(ShipOrder order) {
+        return order == ShipOrder.ID
+                ? Sort.by(order.getFieldName())
+                : Sort.by(order.getFieldName()).and(Sort.by("id"));
+    }
 
-        return new ResponseEntity<>(editedShip, HttpStatus.OK);
+    private static boolean hasRequiredFields(Ship ship) {
+        return ship != null && missingField(ship) == null;
     }
 
-    @DeleteMapping("/ships/{id}")
-    public ResponseEntity<Ship> deleteShip(@PathVariable Long id) {
-        Optional<Ship> optionalShip = shipService.getShipById(id);
-        if (id < 1) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
-        if (!optionalShip.isPresent()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        shipService.deleteShip(id);
-        return new ResponseEntity<>(HttpStatus.OK);
+    private static String missingField(Ship ship) {
+        if (ship.getName() == null)
+            return "name";
+        if (ship.getPlanet() == null)
+            return "planet";
+        if (ship.getShipType() == null)
+            return "shipType";
+        if (ship.getProdDate() == null)
+            return "prodDate";
+        if (ship.getSpeed() == null)
+            return "speed";
+        if (ship.getCrewSize() == null)
+            return "crewSize";
+        return null;
     }
 
-    private List<Ship> geShipsWithSpecification(String name, String planet, ShipType shipType, Long prodAfter, Long prodBefore,
-                                                Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
-                                                Double minRating, Double maxRating, Pageable pageable) {
-        Specification<Ship> specification =
-                Specification.where(
-                        shipService.filterByName(name)).and(
-                        shipService.filterByPlanet(planet)).and(
-                        shipService.filterByShipType(shipType)).and(
-                        shipService.filterByDate(prodAfter, prodBefore)).and(
-                        shipService.filterByUsage(isUsed)).and(
-                        shipService.filterBySpeed(minSpeed, maxSpeed)).and(
-                        shipService.filterByCrewSize(minCrewSize, maxCrewSize)).and(
-                        shipService.filterByRating(minRating, maxRating));
+    private String rejectReason(Ship ship) {
+        String missing = missingField(ship);
+        if (missing != null) {
+            return "missing " + missing;
+        }
+        String invalid = invalidField(ship);
+        return invalid == null ? null : "invalid " + invalid;
+    }
 
-        return shipService.getAllShips(specification, pageable);
+    private static boolean hasAnyField(Ship ship) {
+        return ship != null
+                && (ship.getName() != null
+                || ship.getPlanet() != null
+                || ship.getShipType() != null
+                || ship.getProdDate() != null
+                || ship.isUsed() != null
+                || ship.getSpeed() != null
+                || ship.getCrewSize() != null);
     }
 
     private boolean validateShipFields(Ship ship) {
+        return invalidField(ship) == null;
+    }
+
+    private String invalidField(Ship ship) {
 
         if (ship.getName() != null && (ship.getName().length() < 1 || ship.getName().length() > 50))
-            return false;
+            return "name";
 
         if (ship.getPlanet() != null && (ship.getPlanet().length() < 1 || ship.getPlanet().length() > 50))
-            return false;
+            return "planet";
 
         if (ship.getCrewSize() != null && (ship.getCrewSize() < 1 || ship.getCrewSize() > 9999))
-            return false;
+            return "crewSize";
 
         if (ship.getSpeed() != null && (ship.getSpeed() < 0.01D || ship.getSpeed() > 0.99D))
-            return false;
+            return "speed";
 
         if (ship.getProdDate() != null) {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(ship.getProdDate());
-            return calendar.get(Calendar.YEAR) >= 2800 && calendar.get(Calendar.YEAR) <= 3019;
+            int year = ShipDates.yearOf(ship.getProdDate().getTime());
+            if (year < 2800 || year > Ship.CURRENT_YEAR)
+                return "prodDate";
         }
-        return true;
+        return null;
     }
 
 }
-
@@ -0,0 +1,17 @@
+package com.space.controller;
+
+public class ShipBulkResult {
+
+    private int affected;
+
+    public ShipBulkResult() {
+    }
+
+    public ShipBulkResult(int affected) {
+        this.affected = affected;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+}
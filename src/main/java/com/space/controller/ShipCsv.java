@@ -0,0 +1,97 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ShipCsv {
+
+    public static final String HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating";
+
+    private ShipCsv() {
+    }
+
+    public static void write(Writer out, Ship ship) throws IOException {
+        out.write(String.valueOf(ship.getId()));
+        out.write(',');
+        writeText(out, ship.getName());
+        out.write(',');
+        writeText(out, ship.getPlanet());
+        out.write(',');
+        writeValue(out, ship.getShipType());
+        out.write(',');
+        writeValue(out, ship.getProdDate() == null ? null : ship.getProdDate().getTime());
+        out.write(',');
+        writeValue(out, ship.isUsed());
+        out.write(',');
+        writeValue(out, ship.getSpeed());
+        out.write(',');
+        writeValue(out, ship.getCrewSize());
+        out.write(',');
+        writeValue(out, ship.getRating());
+        out.write('\n');
+    }
+
+    private static void writeValue(Writer out, Object value) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+    }
+
+    private static void writeText(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Reads one record, honouring quoted fields that span lines. Returns {@code null} at the end of the stream.
+     */
+    public static List<String> readRecord(Reader in) throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        record.add(field.toString());
+        return record;
+    }
+}
@@ -0,0 +1,57 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.model.Ship;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public class ShipExportWriter {
+
+    private final ShipFormat format;
+    private final ObjectWriter objectWriter;
+    private final Writer writer;
+    private JsonGenerator generator;
+    private long written;
+
+    public ShipExportWriter(ShipFormat format, ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.format = format;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ShipFormat.CSV) {
+            writer.write(ShipCsv.HEADER);
+            writer.write('\n');
+        } else {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+    }
+
+    public void write(Ship ship) throws IOException {
+        if (format == ShipFormat.CSV) {
+            ShipCsv.write(writer, ship);
+        } else {
+            objectWriter.writeValue(generator, ship);
+        }
+        written++;
+    }
+
+    public void finish() throws IOException {
+        if (generator != null) {
+            generator.flush();
+            if (written > 0) {
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,154 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads ships one record at a time from an NDJSON or CSV stream. Malformed records are reported
+ * with an {@link IllegalArgumentException} so that the caller can skip them and keep reading.
+ */
+public class ShipImportReader {
+
+    private final ShipFormat format;
+    private final ObjectMapper objectMapper;
+    private final LineNumberReader in;
+    private Map<String, Integer> columns;
+    private long line;
+
+    public ShipImportReader(ShipFormat format, ObjectMapper objectMapper, InputStream in) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.in = new LineNumberReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Returns the next ship, or {@code null} at the end of the stream.
+     */
+    public Ship next() throws IOException {
+        return format == ShipFormat.CSV ? nextCsv() : nextJson();
+    }
+
+    /**
+     * Returns the line on which the last record started.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    private Ship nextJson() throws IOException {
+        String text;
+        do {
+            text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            line = in.getLineNumber();
+        } while (text.trim().isEmpty());
+
+        try {
+            return objectMapper.readValue(text, Ship.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Ship nextCsv() throws IOException {
+        if (columns == null && !readHeader()) {
+            return null;
+        }
+        List<String> record;
+        do {
+            line = in.getLineNumber() + 1;
+            record = ShipCsv.readRecord(in);
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty());
+
+        Ship ship = new Ship();
+        ship.setName(text(record, "name"));
+        ship.setPlanet(text(record, "planet"));
+        String shipType = value(record, "shipType");
+        if (shipType != null) {
+            try {
+                ship.setShipType(ShipType.valueOf(shipType));
+            } catch (IllegalArgumentException e) {
+                throw invalid("shipType", shipType);
+            }
+        }
+        String prodDate = value(record, "prodDate");
+        if (prodDate != null) {
+            ship.setProdDate(new Date(parseLong("prodDate", prodDate)));
+        }
+        String isUsed = value(record, "isUsed");
+        if (isUsed != null) {
+            if (!isUsed.equals("true") && !isUsed.equals("false")) {
+                throw invalid("isUsed", isUsed);
+            }
+            ship.setUsed(Boolean.valueOf(isUsed));
+        }
+        String speed = value(record, "speed");
+        if (speed != null) {
+            try {
+                ship.setSpeed(Double.parseDouble(speed));
+            } catch (NumberFormatException e) {
+                throw invalid("speed", speed);
+            }
+        }
+        String crewSize = value(record, "crewSize");
+        if (crewSize != null) {
+            try {
+                ship.setCrewSize(Integer.parseInt(crewSize));
+            } catch (NumberFormatException e) {
+                throw invalid("crewSize", crewSize);
+            }
+        }
+        return ship;
+    }
+
+    private boolean readHeader() throws IOException {
+        List<String> header = ShipCsv.readRecord(in);
+        if (header == null) {
+            return false;
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        return true;
+    }
+
+    private String text(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() || record.get(index).isEmpty() ? null : record.get(index);
+    }
+
+    private String value(List<String> record, String column) {
+        String text = text(record, column);
+        return text == null || text.trim().isEmpty() ? null : text.trim();
+    }
+
+    private static long parseLong(String column, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(column, value);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String column, String value) {
+        return new IllegalArgumentException("invalid " + column + ": " + value);
+    }
+}
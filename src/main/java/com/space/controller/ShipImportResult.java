@@ -0,0 +1,58 @@
+package com.space.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShipImportResult {
+
+    static final int MAX_ERRORS = 100;
+
+    private long accepted;
+    private long rejected;
+    private List<Rejection> errors = new ArrayList<>();
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<Rejection> getErrors() {
+        return errors;
+    }
+
+    void accept(int count) {
+        accepted += count;
+    }
+
+    void reject(long line, String reason) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new Rejection(line, reason));
+        }
+    }
+
+    public static class Rejection {
+
+        private long line;
+        private String reason;
+
+        public Rejection() {
+        }
+
+        Rejection(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+public class ShipPage {
+
+    private List<Ship> items;
+    private Long total;
+    private Integer totalPages;
+    private int pageNumber;
+    private int pageSize;
+    private boolean hasNext;
+
+    public ShipPage() {
+    }
+
+    public static ShipPage of(Page<Ship> page) {
+        ShipPage shipPage = of((Slice<Ship>) page);
+        shipPage.total = page.getTotalElements();
+        shipPage.totalPages = page.getTotalPages();
+        return shipPage;
+    }
+
+    public static ShipPage of(Slice<Ship> slice) {
+        ShipPage shipPage = new ShipPage();
+        shipPage.items = slice.getContent();
+        shipPage.pageNumber = slice.getNumber();
+        shipPage.pageSize = slice.getSize();
+        shipPage.hasNext = slice.hasNext();
+        return shipPage;
+    }
+
+    public List<Ship> getItems() {
+        return items;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+}
@@ -0,0 +1,76 @@
+package com.space.controller;
+
+import com.space.config.CacheMetrics;
+import com.space.config.DbExecutors;
+import com.space.config.PoolMetrics;
+import com.space.config.ReadWriteRoutingDataSource;
+import com.space.service.OptimisticRetry;
+import com.space.service.ShipBitmapIndex;
+import com.space.service.ShipChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping(value = "/rest/stats")
+public class StatsController {
+
+    @Autowired
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ShipBitmapIndex bitmapIndex;
+
+    @Autowired
+    private DbExecutors dbExecutors;
+
+    @Autowired
+    private ShipChangeFeed changeFeed;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @GetMapping("/pool")
+    public Map<String, Object> getPoolStats() {
+        return poolMetrics.snapshot();
+    }
+
+    @GetMapping("/routing")
+    public Map<String, Object> getRoutingStats() {
+        return routingDataSource.snapshot();
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheStats() {
+        return cacheMetrics.snapshot();
+    }
+
+    @GetMapping("/bitmap")
+    public Map<String, Object> getBitmapStats() {
+        return bitmapIndex.stats();
+    }
+
+    @GetMapping("/executors")
+    public Map<String, Object> getExecutorStats() {
+        return dbExecutors.snapshot();
+    }
+
+    @GetMapping("/changes")
+    public Map<String, Object> getChangeFeedStats() {
+        return changeFeed.stats();
+    }
+
+    @GetMapping("/conflicts")
+    public Map<String, Object> getConflictStats() {
+        return optimisticRetry.stats();
+    }
+}
@@ -0,0 +1,56 @@
+package com.space.model;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "rating_job")
+public class RatingJob {
+
+    public enum Status {
+        RUNNING,
+        DONE,
+        CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "reference_year")
+    private Integer referenceYear;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status;
+    @Column(name = "chunks")
+    private Integer chunks;
+
+    public RatingJob() {
+    }
+
+    public RatingJob(int referenceYear, int chunks) {
+        this.referenceYear = referenceYear;
+        this.chunks = chunks;
+        this.status = Status.RUNNING;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getReferenceYear() {
+        return referenceYear;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getChunks() {
+        return chunks;
+    }
+}
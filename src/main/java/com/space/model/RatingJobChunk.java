@@ -0,0 +1,56 @@
+package com.space.model;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "rating_job_chunk")
+public class RatingJobChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "job_id")
+    private Long jobId;
+    @Column(name = "start_id")
+    private Long startId;
+    @Column(name = "end_id")
+    private Long endId;
+    // null until the chunk has been rewritten
+    @Column(name = "updated")
+    private Integer updated;
+
+    public RatingJobChunk() {
+    }
+
+    public RatingJobChunk(Long jobId, Long startId, Long endId) {
+        this.jobId = jobId;
+        this.startId = startId;
+        this.endId = endId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getStartId() {
+        return startId;
+    }
+
+    public Long getEndId() {
+        return endId;
+    }
+
+    public Integer getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Integer updated) {
+        this.updated = updated;
+    }
+}
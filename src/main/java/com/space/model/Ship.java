@@ -1,14 +1,30 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
-import java.util.Calendar;
 import java.util.Date;
 
 @Entity
 @Table(name = "ship")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 public class Ship {
+    public static final int CURRENT_YEAR = 3019;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "ship_id")
+    @GenericGenerator(name = "ship_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "ship_id_sequence"),
+            @Parameter(name = "segment_value", value = "ship"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     @Column(name = "id")
     private Long id;
 
@@ -29,6 +45,15 @@ public class Ship {
     private Integer crewSize;
     @Column(name = "rating")
     private Double rating;
+    // version of the last write that touched the row, see ShipRepositoryCustom.nextChangeVersion()
+    @JsonIgnore
+    @Column(name = "change_version")
+    private long changeVersion;
+    // optimistic lock for entity writes; bulk updates increment it themselves
+    @JsonIgnore
+    @Version
+    @Column(name = "version")
+    private long version;
 
 
     public Ship() {
@@ -117,13 +142,30 @@ public class Ship {
         this.rating = rating;
     }
 
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public double calculateRating() {
+        return calculateRating(CURRENT_YEAR);
+    }
+
+    public double calculateRating(int referenceYear) {
         double rating;
-        final int CURRENT_YEAR = 3019;
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(prodDate);
-        int prodYear = calendar.get(Calendar.YEAR);
-        rating = Math.round((80.0 * speed * (isUsed ? 0.5 : 1) / (CURRENT_YEAR - prodYear + 1.0)) * 100.0) / 100.0;
+        int prodYear = ShipDates.yearOf(prodDate.getTime());
+        rating = Math.round((80.0 * speed * (isUsed ? 0.5 : 1) / (referenceYear - prodYear + 1.0)) * 100.0) / 100.0;
         return rating;
     }
 }
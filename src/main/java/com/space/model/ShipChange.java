@@ -0,0 +1,88 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A committed ship mutation as pushed to change-feed subscribers. Deletes carry only the id, and a bulk
+ * change carries neither id nor ship: subscribers are expected to reload what they show. An update also keeps
+ * the state before it, so a subscriber whose filter the ship stopped matching gets a {@link Type#LEFT} instead.
+ */
+public class ShipChange {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        LEFT,
+        BULK
+    }
+
+    private long sequence;
+    private Type type;
+    private Long id;
+    private Ship ship;
+    private Ship previous;
+
+    public ShipChange() {
+    }
+
+    public ShipChange(Type type, Long id, Ship ship) {
+        this.type = type;
+        this.id = id;
+        this.ship = ship;
+    }
+
+    public ShipChange(long sequence, ShipChange change) {
+        this(change.type, change.id, change.ship);
+        this.sequence = sequence;
+        this.previous = change.previous;
+    }
+
+    public static ShipChange created(Ship ship) {
+        return new ShipChange(Type.CREATED, ship.getId(), ship);
+    }
+
+    public static ShipChange updated(Ship previous, Ship ship) {
+        ShipChange change = new ShipChange(Type.UPDATED, ship.getId(), ship);
+        change.previous = previous;
+        return change;
+    }
+
+    public static ShipChange deleted(Long id) {
+        return new ShipChange(Type.DELETED, id, null);
+    }
+
+    public static ShipChange bulk() {
+        return new ShipChange(Type.BULK, null, null);
+    }
+
+    /**
+     * The same change as seen by a subscriber whose filter matched the ship before it but not after it.
+     */
+    public ShipChange left() {
+        ShipChange left = new ShipChange(Type.LEFT, id, null);
+        left.sequence = sequence;
+        return left;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Ship getShip() {
+        return ship;
+    }
+
+    @JsonIgnore
+    public Ship getPrevious() {
+        return previous;
+    }
+}
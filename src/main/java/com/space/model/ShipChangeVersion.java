@@ -0,0 +1,34 @@
+package com.space.model;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * One allocated change version. The auto-increment key hands out versions without a lock that outlives the
+ * insert; the rows only keep the counter across restarts and are pruned once their versions are settled.
+ */
+@Entity
+@Table(name = "ship_change_version")
+public class ShipChangeVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "version")
+    private Long version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "allocated")
+    private Date allocated;
+
+    public ShipChangeVersion() {
+        this.allocated = new Date();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Date getAllocated() {
+        return allocated;
+    }
+}
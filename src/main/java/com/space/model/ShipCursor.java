@@ -0,0 +1,67 @@
+package com.space.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public class ShipCursor {
+
+    private final ShipOrder order;
+    private final Object value;
+    private final Long id;
+
+    private ShipCursor(ShipOrder order, Object value, Long id) {
+        this.order = order;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ShipCursor of(ShipOrder order, Ship last) {
+        switch (order) {
+            case SPEED:
+                return new ShipCursor(order, last.getSpeed(), last.getId());
+            case DATE:
+                return new ShipCursor(order, last.getProdDate(), last.getId());
+            case RATING:
+                return new ShipCursor(order, last.getRating(), last.getId());
+            default:
+                return new ShipCursor(order, null, last.getId());
+        }
+    }
+
+    public static ShipCursor decode(String token, ShipOrder order) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(":", -1);
+        if (parts.length != 3 || !order.name().equals(parts[0])) {
+            throw new IllegalArgumentException("Cursor does not belong to order " + order);
+        }
+        Long id = Long.valueOf(parts[2]);
+        switch (order) {
+            case SPEED:
+            case RATING:
+                return new ShipCursor(order, Double.valueOf(parts[1]), id);
+            case DATE:
+                return new ShipCursor(order, new Date(Long.parseLong(parts[1])), id);
+            default:
+                return new ShipCursor(order, null, id);
+        }
+    }
+
+    public String encode() {
+        String encodedValue = value instanceof Date ? String.valueOf(((Date) value).getTime()) : String.valueOf(value);
+        String raw = order.name() + ":" + encodedValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,102 @@
+package com.space.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+/**
+ * Calendar arithmetic on epoch milliseconds in the JVM default time zone, which is what the JDBC driver
+ * uses for DATE columns. Years are computed on the proleptic Gregorian calendar, which matches
+ * {@link java.util.Calendar} for every year after 1582, without allocating a calendar or date per call.
+ */
+public final class ShipDates {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final long DAYS_PER_CYCLE = 146097;
+    private static final long DAYS_0000_TO_1970 = DAYS_PER_CYCLE * 5 - (30 * 365 + 7);
+
+    // ZoneId.systemDefault() clones the default TimeZone on every call; the rules are immutable
+    private static final ZoneRules RULES = ZoneId.systemDefault().getRules();
+
+    private ShipDates() {
+    }
+
+    // prodDate is a DATE column, so the database keeps only the local calendar day
+    public static long toDateColumn(Date date) {
+        return toDateColumn(date.getTime(), RULES);
+    }
+
+    public static int yearOf(long millis) {
+        return yearOf(millis, RULES);
+    }
+
+    public static long startOfYear(int year) {
+        return startOfDay(epochDayOfYear(year), RULES);
+    }
+
+    static long toDateColumn(long millis, ZoneRules rules) {
+        return startOfDay(Math.floorDiv(millis + offsetAt(millis, rules), MILLIS_PER_DAY), rules);
+    }
+
+    static int yearOf(long millis, ZoneRules rules) {
+        return yearOfEpochDay(Math.floorDiv(millis + offsetAt(millis, rules), MILLIS_PER_DAY));
+    }
+
+    /**
+     * The first instant of the local day. Away from an offset change that is local midnight; a midnight that
+     * falls into a gap starts the day at the end of the gap, and one that occurs twice at its first occurrence.
+     */
+    static long startOfDay(long epochDay, ZoneRules rules) {
+        long local = epochDay * MILLIS_PER_DAY;
+        // no zone is offset by a day or more, so one offset on both sides means midnight is not near a change
+        int offset = offsetAt(local - MILLIS_PER_DAY, rules);
+        if (offset == offsetAt(local + MILLIS_PER_DAY, rules) && offset == offsetAt(local - offset, rules)) {
+            return local - offset;
+        }
+        LocalDateTime midnight = LocalDate.ofEpochDay(epochDay).atStartOfDay();
+        ZoneOffsetTransition transition = rules.getTransition(midnight);
+        if (transition != null && transition.isGap()) {
+            return transition.getInstant().toEpochMilli();
+        }
+        return midnight.toInstant(rules.getValidOffsets(midnight).get(0)).toEpochMilli();
+    }
+
+    static int yearOfEpochDay(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay -= adjustCycles * DAYS_PER_CYCLE;
+        }
+        long year = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long dayOfYear = zeroDay - daysBeforeMarchYear(year);
+        if (dayOfYear < 0) {
+            year--;
+            dayOfYear = zeroDay - daysBeforeMarchYear(year);
+        }
+        // the computed year starts in March, so January and February belong to the next one
+        int marchMonth = ((int) dayOfYear * 5 + 2) / 153;
+        return (int) (year + adjust + marchMonth / 10);
+    }
+
+    static long epochDayOfYear(int year) {
+        long y = year - 1L;
+        long days = 365 * y + Math.floorDiv(y, 4) - Math.floorDiv(y, 100) + Math.floorDiv(y, 400);
+        return days - (DAYS_0000_TO_1970 - 366);
+    }
+
+    private static long daysBeforeMarchYear(long year) {
+        return 365 * year + year / 4 - year / 100 + year / 400;
+    }
+
+    // a fixed offset, such as UTC on servers, is answered without looking at the instant
+    private static int offsetAt(long millis, ZoneRules rules) {
+        Instant instant = rules.isFixedOffset() ? Instant.EPOCH : Instant.ofEpochMilli(millis);
+        return rules.getOffset(instant).getTotalSeconds() * 1000;
+    }
+}
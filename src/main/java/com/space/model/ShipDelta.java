@@ -0,0 +1,47 @@
+package com.space.model;
+
+import java.util.List;
+
+/**
+ * Ships written and deleted after a change version. When {@code more} is set the client asks again with
+ * {@code since=version&afterId=afterId}; otherwise {@code version} is the token for the next sync.
+ */
+public class ShipDelta {
+
+    private long version;
+    private Long afterId;
+    private boolean more;
+    private List<Ship> upserted;
+    private List<Long> deleted;
+
+    public ShipDelta() {
+    }
+
+    public ShipDelta(long version, Long afterId, boolean more, List<Ship> upserted, List<Long> deleted) {
+        this.version = version;
+        this.afterId = afterId;
+        this.more = more;
+        this.upserted = upserted;
+        this.deleted = deleted;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+
+    public List<Ship> getUpserted() {
+        return upserted;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,114 @@
+package com.space.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class ShipFacets {
+
+    private long total;
+    private Map<String, Long> shipType;
+    private Map<String, Long> isUsed;
+    private List<ValueCount> planets;
+    private List<Bucket> speed;
+    private List<Bucket> crewSize;
+    private List<Bucket> rating;
+    private List<Bucket> year;
+
+    public ShipFacets() {
+    }
+
+    public ShipFacets(long total, Map<String, Long> shipType, Map<String, Long> isUsed, List<ValueCount> planets,
+                      List<Bucket> speed, List<Bucket> crewSize, List<Bucket> rating, List<Bucket> year) {
+        this.total = total;
+        this.shipType = shipType;
+        this.isUsed = isUsed;
+        this.planets = planets;
+        this.speed = speed;
+        this.crewSize = crewSize;
+        this.rating = rating;
+        this.year = year;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getShipType() {
+        return shipType;
+    }
+
+    public Map<String, Long> getIsUsed() {
+        return isUsed;
+    }
+
+    public List<ValueCount> getPlanets() {
+        return planets;
+    }
+
+    public List<Bucket> getSpeed() {
+        return speed;
+    }
+
+    public List<Bucket> getCrewSize() {
+        return crewSize;
+    }
+
+    public List<Bucket> getRating() {
+        return rating;
+    }
+
+    public List<Bucket> getYear() {
+        return year;
+    }
+
+    public static class ValueCount {
+
+        private String value;
+        private long count;
+
+        public ValueCount() {
+        }
+
+        public ValueCount(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    // from is inclusive, to is exclusive
+    public static class Bucket {
+
+        private Number from;
+        private Number to;
+        private long count;
+
+        public Bucket() {
+        }
+
+        public Bucket(Number from, Number to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public Number getFrom() {
+            return from;
+        }
+
+        public Number getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
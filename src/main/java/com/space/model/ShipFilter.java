@@ -0,0 +1,149 @@
+package com.space.model;
+
+import java.util.Locale;
+
+public class ShipFilter {
+
+    private String name;
+    private String planet;
+    private ShipType shipType;
+    private Long after;
+    private Long before;
+    private Boolean isUsed;
+    private Double minSpeed;
+    private Double maxSpeed;
+    private Integer minCrewSize;
+    private Integer maxCrewSize;
+    private Double minRating;
+    private Double maxRating;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public void setPlanet(String planet) {
+        this.planet = planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public void setShipType(ShipType shipType) {
+        this.shipType = shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public void setAfter(Long after) {
+        this.after = after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public void setBefore(Long before) {
+        this.before = before;
+    }
+
+    public Boolean getIsUsed() {
+        return isUsed;
+    }
+
+    public void setIsUsed(Boolean isUsed) {
+        this.isUsed = isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public void setMinSpeed(Double minSpeed) {
+        this.minSpeed = minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(Double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public void setMinCrewSize(Integer minCrewSize) {
+        this.minCrewSize = minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public void setMaxCrewSize(Integer maxCrewSize) {
+        this.maxCrewSize = maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public void setMinRating(Double minRating) {
+        this.minRating = minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    public void setMaxRating(Double maxRating) {
+        this.maxRating = maxRating;
+    }
+
+    public boolean isEmpty() {
+        return name == null && planet == null && shipType == null && after == null && before == null
+                && isUsed == null && minSpeed == null && maxSpeed == null && minCrewSize == null
+                && maxCrewSize == null && minRating == null && maxRating == null;
+    }
+
+    /**
+     * In-memory counterpart of {@code ShipService.filterBy}, for ships that are not read back from the database.
+     */
+    public boolean matches(Ship ship) {
+        return contains(ship.getName(), name)
+                && contains(ship.getPlanet(), planet)
+                && (shipType == null || shipType == ship.getShipType())
+                && inRange(ship.getProdDate() == null ? null : ship.getProdDate().getTime(), after, before)
+                && (isUsed == null || isUsed.equals(ship.isUsed()))
+                && inRange(ship.getSpeed(), minSpeed, maxSpeed)
+                && inRange(ship.getCrewSize(), minCrewSize, maxCrewSize)
+                && inRange(ship.getRating(), minRating, maxRating);
+    }
+
+    // the name and planet filters follow MySQL's default collation, which compares without regard to case
+    private static boolean contains(String value, String part) {
+        return part == null || value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT));
+    }
+
+    private static <T extends Comparable<T>> boolean inRange(T value, T min, T max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null
+                && (min == null || value.compareTo(min) >= 0)
+                && (max == null || value.compareTo(max) <= 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.space.model;
+
+public class ShipGroupStats {
+
+    private Object group;
+    private long count;
+    private Double minSpeed;
+    private Double avgSpeed;
+    private Double maxSpeed;
+    private Double minRating;
+    private Double avgRating;
+    private Double maxRating;
+    private Integer minCrewSize;
+    private Double avgCrewSize;
+    private Integer maxCrewSize;
+
+    public ShipGroupStats() {
+    }
+
+    public ShipGroupStats(Object group, long count,
+                          Double minSpeed, Double avgSpeed, Double maxSpeed,
+                          Double minRating, Double avgRating, Double maxRating,
+                          Integer minCrewSize, Double avgCrewSize, Integer maxCrewSize) {
+        this.group = group;
+        this.count = count;
+        this.minSpeed = minSpeed;
+        this.avgSpeed = avgSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minRating = minRating;
+        this.avgRating = avgRating;
+        this.maxRating = maxRating;
+        this.minCrewSize = minCrewSize;
+        this.avgCrewSize = avgCrewSize;
+        this.maxCrewSize = maxCrewSize;
+    }
+
+    public Object getGroup() {
+        return group;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getAvgSpeed() {
+        return avgSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getAvgRating() {
+        return avgRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Double getAvgCrewSize() {
+        return avgCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+}
@@ -0,0 +1,18 @@
+package com.space.model;
+
+public enum ShipGrouping {
+    SHIP_TYPE("shipType"),
+    PLANET("planet"),
+    IS_USED("isUsed"),
+    YEAR("prodDate"); // production year
+
+    private String fieldName;
+
+    ShipGrouping(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
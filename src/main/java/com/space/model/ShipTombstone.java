@@ -0,0 +1,34 @@
+package com.space.model;
+
+import javax.persistence.*;
+
+/**
+ * Marks a deleted ship for delta-sync clients; the id is the id of the ship that was deleted.
+ */
+@Entity
+@Table(name = "ship_tombstone")
+public class ShipTombstone {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "change_version")
+    private long changeVersion;
+
+    public ShipTombstone() {
+    }
+
+    public ShipTombstone(Long id, long changeVersion) {
+        this.id = id;
+        this.changeVersion = changeVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+}
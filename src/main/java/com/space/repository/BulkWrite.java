@@ -0,0 +1,26 @@
+package com.space.repository;
+
+/**
+ * The outcome of a filter-based write: how many ships it touched and the change version it stamped them with,
+ * which is how the written rows and tombstones can be found again without collecting their ids.
+ */
+public final class BulkWrite {
+
+    static final BulkWrite NONE = new BulkWrite(0, 0);
+
+    private final int affected;
+    private final long changeVersion;
+
+    BulkWrite(int affected, long changeVersion) {
+        this.affected = affected;
+        this.changeVersion = changeVersion;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+}
@@ -0,0 +1,97 @@
+package com.space.repository;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The highest change version below which every version allocated by this process has committed or rolled back.
+ * Versions come from an auto-increment key and their transactions may finish in any order, so the newest
+ * committed version alone could announce a version while an older one is still about to become visible.
+ */
+final class ChangeVersionWatermark {
+
+    private final Lock lock = new ReentrantLock();
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+    // inserts that have not returned their key yet may still receive a value below the ones already known
+    private int allocating;
+    private long highest;
+
+    private volatile long watermark = -1;
+    private volatile long lastModified;
+
+    long current() {
+        return watermark;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    void allocating() {
+        lock.lock();
+        try {
+            allocating++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void allocated(long version) {
+        lock.lock();
+        try {
+            allocating--;
+            inFlight.add(version);
+            highest = Math.max(highest, version);
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void allocationFailed() {
+        lock.lock();
+        try {
+            allocating--;
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void finished(long version) {
+        lock.lock();
+        try {
+            inFlight.remove(version);
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes in versions allocated elsewhere, e.g. by another process, as found in the database.
+     */
+    void refresh(long latest) {
+        lock.lock();
+        try {
+            highest = Math.max(highest, latest);
+            lastModified = System.currentTimeMillis();
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance() {
+        if (allocating > 0) {
+            return;
+        }
+        long next = inFlight.isEmpty() ? highest : inFlight.first() - 1;
+        if (next > watermark) {
+            watermark = next;
+            lastModified = System.currentTimeMillis();
+        }
+    }
+}
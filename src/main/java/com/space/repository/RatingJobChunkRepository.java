@@ -0,0 +1,18 @@
+package com.space.repository;
+
+import com.space.model.RatingJobChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface RatingJobChunkRepository extends JpaRepository<RatingJobChunk, Long> {
+
+    List<RatingJobChunk> findByJobIdAndUpdatedIsNullOrderByStartId(Long jobId);
+
+    long countByJobIdAndUpdatedIsNotNull(Long jobId);
+
+    @Query("select coalesce(sum(c.updated), 0) from RatingJobChunk c where c.jobId = :jobId")
+    long sumUpdated(@Param("jobId") Long jobId);
+}
@@ -0,0 +1,16 @@
+package com.space.repository;
+
+import com.space.model.RatingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface RatingJobRepository extends JpaRepository<RatingJob, Long> {
+
+    Optional<RatingJob> findFirstByOrderByIdDesc();
+
+    Optional<RatingJob> findFirstByStatusOrderByIdDesc(RatingJob.Status status);
+
+    Optional<RatingJob> findFirstByStatusInOrderByIdDesc(Collection<RatingJob.Status> statuses);
+}
@@ -1,9 +1,30 @@
 package com.space.repository;
 
 import com.space.model.Ship;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship> {
+import javax.persistence.QueryHint;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
+public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipRepositoryCustom {
+
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    Page<Ship> findAll(Specification<Ship> specification, Pageable pageable);
+
+    @Override
+    <S extends Ship> S save(S ship);
+
+    @Query("select min(s.id) from Ship s")
+    Long findMinId();
+
+    @Query("select max(s.id) from Ship s")
+    Long findMaxId();
 }
@@ -0,0 +1,79 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface ShipRepositoryCustom {
+
+    List<Ship> findAll(Specification<Ship> specification, Sort sort, int limit);
+
+    Slice<Ship> findSlice(Specification<Ship> specification, Pageable pageable);
+
+    long count(Specification<Ship> specification);
+
+    List<ShipGroupStats> aggregate(Specification<Ship> specification, ShipGrouping grouping);
+
+    void scroll(Specification<Ship> specification, Sort sort, int fetchSize, Consumer<Ship> consumer);
+
+    /**
+     * Row counts per distinct value of a field over the matching ships, largest first and then by value. Ships
+     * without a value are left out.
+     */
+    Map<Object, Long> countByValue(Specification<Ship> specification, String fieldName, int limit);
+
+    /**
+     * For each condition, how many of the matching ships also meet it, all counted in one scan.
+     */
+    long[] countEach(Specification<Ship> specification, List<Specification<Ship>> conditions);
+
+    /**
+     * Replaces the default save so that every write stamps the ship with a new change version.
+     */
+    <S extends Ship> S save(S ship);
+
+    void saveInBatches(List<Ship> ships, int batchSize);
+
+    /**
+     * One UPDATE over the matching ships. The rows it wrote carry the returned change version, so callers can
+     * refresh just those.
+     */
+    BulkWrite bulkUpdate(Specification<Ship> specification, Ship changes, int referenceYear);
+
+    BulkWrite updateRatings(Specification<Ship> specification, int referenceYear);
+
+    /**
+     * Set-based delete of the matching ships; their tombstones carry the returned change version.
+     */
+    BulkWrite bulkDelete(Specification<Ship> specification);
+
+    int deleteShipById(Long id);
+
+    /**
+     * The highest change version up to which every write made through this process has committed or rolled back,
+     * kept in memory so conditional requests can be answered without a query. Nothing at or below it can still
+     * become visible, so it is also the safe upper bound of a delta. Writes made by other processes are only seen
+     * after {@link #refreshCommittedVersion()}.
+     */
+    long lastCommittedVersion();
+
+    /**
+     * When {@link #lastCommittedVersion()} last moved, in epoch milliseconds.
+     */
+    long lastModified();
+
+    void refreshCommittedVersion();
+
+    List<Ship> findChangedSince(long since, Long afterId, long upTo, int limit);
+
+    List<ShipTombstone> findDeletedSince(long since, Long afterId, long upTo, int limit);
+}
@@ -0,0 +1,523 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipChangeVersion;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipTombstone;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.annotations.QueryHints.CACHE_MODE;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ShipRepositoryCustomImpl implements ShipRepositoryCustom {
+
+    private static final long VERSION_PRUNE_INTERVAL = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ChangeVersionWatermark watermark = new ChangeVersionWatermark();
+
+    @Override
+    public List<Ship> findAll(Specification<Ship> specification, Sort sort, int limit) {
+        return createQuery(specification, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Slice<Ship> findSlice(Specification<Ship> specification, Pageable pageable) {
+        List<Ship> content = createQuery(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public long count(Specification<Ship> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query)
+                .setHint(CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    @Override
+    public List<ShipGroupStats> aggregate(Specification<Ship> specification, ShipGrouping grouping) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Ship> root = query.from(Ship.class);
+
+        Expression<?> group = grouping == ShipGrouping.YEAR
+                ? cb.function("YEAR", Integer.class, root.get(grouping.getFieldName()))
+                : root.get(grouping.getFieldName());
+        Path<Double> speed = root.get("speed");
+        Path<Double> rating = root.get("rating");
+        Path<Integer> crewSize = root.get("crewSize");
+        query.multiselect(group, cb.count(root),
+                cb.min(speed), cb.avg(speed), cb.max(speed),
+                cb.min(rating), cb.avg(rating), cb.max(rating),
+                cb.min(crewSize), cb.avg(cb.prod(crewSize, 1.0)), cb.max(crewSize));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(group).orderBy(cb.asc(group));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+        List<ShipGroupStats> stats = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            stats.add(new ShipGroupStats(row.get(0), row.get(1, Long.class),
+                    row.get(2, Double.class), row.get(3, Double.class), row.get(4, Double.class),
+                    row.get(5, Double.class), row.get(6, Double.class), row.get(7, Double.class),
+                    row.get(8, Integer.class), row.get(9, Double.class), row.get(10, Integer.class)));
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<Object, Long> countByValue(Specification<Ship> specification, String fieldName, int limit) {
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        if (limit == 0) {
+            return counts;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Ship> root = query.from(Ship.class);
+
+        Expression<?> value = root.get(fieldName);
+        Expression<Long> count = cb.count(root);
+        query.multiselect(value, count);
+
+        Predicate notNull = cb.isNotNull(root.get(fieldName));
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        query.where(predicate == null ? notNull : cb.and(predicate, notNull));
+        query.groupBy(value).orderBy(cb.desc(count), cb.asc(value));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+        for (Tuple row : rows) {
+            counts.put(row.get(0), row.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    @Override
+    public long[] countEach(Specification<Ship> specification, List<Specification<Ship>> conditions) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Ship> root = query.from(Ship.class);
+
+        // one SUM(CASE WHEN condition THEN 1 ELSE 0 END) column per condition
+        List<Selection<?>> sums = new ArrayList<>(conditions.size());
+        for (Specification<Ship> condition : conditions) {
+            Predicate predicate = condition == null ? null : condition.toPredicate(root, query, cb);
+            Expression<Long> hit = cb.<Long>selectCase()
+                    .when(predicate == null ? cb.conjunction() : predicate, 1L)
+                    .otherwise(0L);
+            sums.add(cb.sum(hit));
+        }
+        query.multiselect(sums);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Tuple row = entityManager.createQuery(query)
+                .setHint(CACHEABLE, true)
+                .getSingleResult();
+        long[] counts = new long[conditions.size()];
+        for (int i = 0; i < counts.length; i++) {
+            // SUM over no rows is NULL
+            Number count = (Number) row.get(i);
+            counts[i] = count == null ? 0 : count.longValue();
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void scroll(Specification<Ship> specification, Sort sort, int fetchSize, Consumer<Ship> consumer) {
+        TypedQuery<Ship> query = streaming(createQuery(specification, sort), fetchSize);
+
+        // Hibernate backs the stream with a forward-only scroll, so rows arrive one fetch at a time
+        try (Stream<Ship> results = query.getResultStream()) {
+            long rows = 0;
+            for (Iterator<Ship> it = results.iterator(); it.hasNext(); ) {
+                consumer.accept(it.next());
+                if (++rows % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private static <T> TypedQuery<T> streaming(TypedQuery<T> query, int fetchSize) {
+        return query.setHint(FETCH_SIZE, fetchSize)
+                .setHint(READ_ONLY, true)
+                .setHint(CACHE_MODE, CacheMode.IGNORE);
+    }
+
+    @Override
+    @Transactional
+    public <S extends Ship> S save(S ship) {
+        ship.setChangeVersion(nextChangeVersion());
+        if (ship.getId() == null) {
+            entityManager.persist(ship);
+            return ship;
+        }
+        return entityManager.merge(ship);
+    }
+
+    @Override
+    @Transactional
+    public void saveInBatches(List<Ship> ships, int batchSize) {
+        if (ships.isEmpty()) {
+            return;
+        }
+        long version = nextChangeVersion();
+        for (Ship ship : ships) {
+            ship.setChangeVersion(version);
+        }
+        for (int i = 0; i < ships.size(); i++) {
+            entityManager.persist(ships.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public BulkWrite bulkUpdate(Specification<Ship> specification, Ship changes, int referenceYear) {
+        // an empty match must not announce a new version
+        if (!exists(specification)) {
+            return BulkWrite.NONE;
+        }
+        long version = nextChangeVersion();
+        int updated = entityManager.createQuery(update(specification, changes, referenceYear, version))
+                .executeUpdate();
+        return new BulkWrite(updated, version);
+    }
+
+    private CriteriaUpdate<Ship> update(Specification<Ship> specification, Ship changes, int referenceYear,
+                                        long version) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> update = cb.createCriteriaUpdate(Ship.class);
+        Root<Ship> root = update.from(Ship.class);
+
+        if (changes.getName() != null) {
+            update.set(root.get("name"), changes.getName());
+        }
+        if (changes.getPlanet() != null) {
+            update.set(root.get("planet"), changes.getPlanet());
+        }
+        if (changes.getShipType() != null) {
+            update.set(root.get("shipType"), changes.getShipType());
+        }
+        if (changes.getProdDate() != null) {
+            update.set(root.get("prodDate"), changes.getProdDate());
+        }
+        if (changes.isUsed() != null) {
+            update.set(root.get("isUsed"), changes.isUsed());
+        }
+        if (changes.getSpeed() != null) {
+            update.set(root.get("speed"), changes.getSpeed());
+        }
+        if (changes.getCrewSize() != null) {
+            update.set(root.get("crewSize"), changes.getCrewSize());
+        }
+        if (changes.getProdDate() != null || changes.isUsed() != null || changes.getSpeed() != null) {
+            update.set(root.<Double>get("rating"), rating(cb, root, changes, referenceYear));
+        }
+        update.set(root.<Long>get("changeVersion"), version);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, null, cb);
+        return predicate == null ? update : update.where(predicate);
+    }
+
+    @Override
+    @Transactional
+    public BulkWrite updateRatings(Specification<Ship> specification, int referenceYear) {
+        // a chunk of the id range may have no rows left, and an empty write must not announce a new version
+        if (!exists(specification)) {
+            return BulkWrite.NONE;
+        }
+        long version = nextChangeVersion();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> update = cb.createCriteriaUpdate(Ship.class);
+        Root<Ship> root = update.from(Ship.class);
+        update.set(root.<Double>get("rating"), rating(cb, root, new Ship(), referenceYear));
+        update.set(root.<Long>get("changeVersion"), version);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, null, cb);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return new BulkWrite(entityManager.createQuery(update).executeUpdate(), version);
+    }
+
+    @Override
+    @Transactional
+    public BulkWrite bulkDelete(Specification<Ship> specification) {
+        if (!exists(specification)) {
+            return BulkWrite.NONE;
+        }
+        long version = nextChangeVersion();
+
+        // stamping the matching rows locks them, so the tombstones and the delete cover exactly the same ships
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> mark = cb.createCriteriaUpdate(Ship.class);
+        Root<Ship> marked = mark.from(Ship.class);
+        mark.set(marked.<Long>get("changeVersion"), version);
+        Predicate predicate = specification == null ? null : specification.toPredicate(marked, null, cb);
+        if (predicate != null) {
+            mark.where(predicate);
+        }
+        entityManager.createQuery(mark).executeUpdate();
+
+        entityManager.createQuery("insert into ShipTombstone (id, changeVersion) "
+                + "select s.id, s.changeVersion from Ship s where s.changeVersion = :version")
+                .setParameter("version", version)
+                .executeUpdate();
+
+        CriteriaDelete<Ship> delete = cb.createCriteriaDelete(Ship.class);
+        Root<Ship> root = delete.from(Ship.class);
+        int deleted = entityManager.createQuery(delete.where(cb.equal(root.get("changeVersion"), version)))
+                .executeUpdate();
+        return new BulkWrite(deleted, version);
+    }
+
+    @Override
+    @Transactional
+    public int deleteShipById(Long id) {
+        lockCachedShip(id);
+        int deleted = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement delete = connection.prepareStatement("delete from ship where id = ?")) {
+                delete.setLong(1, id);
+                return delete.executeUpdate();
+            }
+        });
+        if (deleted > 0) {
+            entityManager.persist(new ShipTombstone(id, nextChangeVersion()));
+        }
+        return deleted;
+    }
+
+    /**
+     * Hibernate drops the whole Ship region around any DELETE or UPDATE statement on the table, so a statement
+     * written for one ship takes the locks an entity write would instead: its own cache entry stays locked
+     * until the transaction ends, and cached queries over the table are invalidated.
+     */
+    private void lockCachedShip(Long id) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMetamodel().entityPersister(Ship.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object key = cache.generateCacheKey(id, persister, factory, session.getTenantIdentifier());
+        Serializable[] spaces = persister.getQuerySpaces();
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+
+        SoftLock lock = cache.lockItem(session, key, null);
+        timestamps.preInvalidate(spaces, session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.unlockItem(session, key, lock);
+                timestamps.invalidate(spaces, session);
+            }
+        });
+    }
+
+    @Override
+    public long lastCommittedVersion() {
+        long version = watermark.current();
+        if (version < 0) {
+            refreshCommittedVersion();
+            version = watermark.current();
+        }
+        return version;
+    }
+
+    @Override
+    public long lastModified() {
+        lastCommittedVersion();
+        return watermark.lastModified();
+    }
+
+    @Override
+    public void refreshCommittedVersion() {
+        Long latest = entityManager.createQuery("select max(v.version) from ShipChangeVersion v", Long.class)
+                .getSingleResult();
+        watermark.refresh(latest == null ? 0 : latest);
+    }
+
+    @Override
+    public List<Ship> findChangedSince(long since, Long afterId, long upTo, int limit) {
+        return changedSince(Ship.class, since, afterId, upTo, limit);
+    }
+
+    @Override
+    public List<ShipTombstone> findDeletedSince(long since, Long afterId, long upTo, int limit) {
+        return changedSince(ShipTombstone.class, since, afterId, upTo, limit);
+    }
+
+    private <T> List<T> changedSince(Class<T> type, long since, Long afterId, long upTo, int limit) {
+        String after = afterId == null
+                ? "e.changeVersion > :since"
+                : "(e.changeVersion > :since or (e.changeVersion = :since and e.id > :afterId))";
+        TypedQuery<T> query = entityManager.createQuery("select e from " + type.getSimpleName() + " e where "
+                + after + " and e.changeVersion <= :upTo order by e.changeVersion, e.id", type)
+                .setParameter("since", since)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+
+    // the insert takes the next auto-increment value and holds no lock past the statement
+    private long nextChangeVersion() {
+        watermark.allocating();
+        long version;
+        try {
+            ShipChangeVersion allocated = new ShipChangeVersion();
+            entityManager.persist(allocated);
+            version = allocated.getVersion();
+        } catch (RuntimeException e) {
+            watermark.allocationFailed();
+            throw e;
+        }
+        watermark.allocated(version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    watermark.finished(version);
+                }
+            });
+        } else {
+            watermark.finished(version);
+        }
+        if (version % VERSION_PRUNE_INTERVAL == 0) {
+            // only the newest row is needed to carry the counter across restarts
+            entityManager.createQuery("delete from ShipChangeVersion v where v.version < :settled")
+                    .setParameter("settled", watermark.current())
+                    .executeUpdate();
+        }
+        return version;
+    }
+
+    private boolean exists(Specification<Ship> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> ids = cb.createQuery(Long.class);
+        Root<Ship> ship = ids.from(Ship.class);
+        Predicate matching = specification == null ? null : specification.toPredicate(ship, ids, cb);
+        if (matching != null) {
+            ids.where(matching);
+        }
+        return !entityManager.createQuery(ids.select(ship.get("id")))
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // same arithmetic as Ship.calculateRating(), with Math.round spelled as FLOOR(x + 0.5)
+    private static Expression<Double> rating(CriteriaBuilder cb, Root<Ship> root, Ship changes, int referenceYear) {
+        Expression<Double> speed = changes.getSpeed() != null
+                ? cb.literal(changes.getSpeed())
+                : root.get("speed");
+        Expression<Double> usage = changes.isUsed() != null
+                ? cb.literal(changes.isUsed() ? 0.5 : 1.0)
+                : cb.<Double>selectCase().when(cb.isTrue(root.get("isUsed")), 0.5).otherwise(1.0);
+        Expression<Integer> prodYear = changes.getProdDate() != null
+                ? cb.literal(ShipDates.yearOf(changes.getProdDate().getTime()))
+                : cb.function("YEAR", Integer.class, root.get("prodDate"));
+
+        Expression<Number> age = cb.diff(cb.literal(referenceYear + 1.0), prodYear);
+        Expression<Number> raw = cb.quot(cb.prod(cb.prod(cb.literal(80.0), speed), usage), age);
+        Expression<Double> rounded = cb.function("FLOOR", Double.class, cb.sum(cb.prod(raw, 100.0), 0.5));
+        return cb.quot(rounded, 100.0).as(Double.class);
+    }
+
+    private TypedQuery<Ship> createQuery(Specification<Ship> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+    }
+}
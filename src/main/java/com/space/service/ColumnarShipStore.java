@@ -0,0 +1,392 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ColumnarShipStore implements ShipIndex {
+
+    static final String MEMORY_ENGINE = "memory";
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    private static final int NULL_USED = 0;
+    private static final int NULL_PROD_DATE = 1;
+    private static final int NULL_CREW_SIZE = 2;
+    private static final int NULL_COLUMNS = 3;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    private int size;
+    private int deleted;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private double[] rating = new double[INITIAL_CAPACITY];
+    private int[] crewSize = new int[INITIAL_CAPACITY];
+    private long[] prodDate = new long[INITIAL_CAPACITY];
+    private int[] planetCode = new int[INITIAL_CAPACITY];
+    private byte[] shipType = new byte[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] searchNames = new String[INITIAL_CAPACITY];
+    private final BitSet used = new BitSet();
+    private final BitSet live = new BitSet();
+    private final BitSet nulls = new BitSet();
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final List<String> planets = new ArrayList<>();
+    private final Map<String, Integer> planetCodes = new HashMap<>();
+
+    public ColumnarShipStore(@Value("${ship.query.engine:db}") String engine) {
+        this.enabled = MEMORY_ENGINE.equals(engine);
+    }
+
+    public boolean isActive() {
+        return enabled && ready;
+    }
+
+    @Override
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            size = 0;
+            deleted = 0;
+            used.clear();
+            live.clear();
+            nulls.clear();
+            rowById.clear();
+            planets.clear();
+            planetCodes.clear();
+            Arrays.fill(names, null);
+            Arrays.fill(searchNames, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = enabled;
+    }
+
+    @Override
+    public void onSave(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(ship.getId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowById.put(ship.getId(), row);
+            }
+            write(row, ship);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                live.clear(row);
+                names[row] = null;
+                searchNames[row] = null;
+                deleted++;
+                if (deleted > CHUNK_SIZE && deleted > size / 2) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(ShipFilter filter) {
+        lock.readLock().lock();
+        try {
+            return scan(filter).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Page<Ship> find(ShipFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int[] rows = scan(filter);
+            int from = (int) Math.min(pageable.getOffset(), rows.length);
+            int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), rows.length);
+
+            Integer[] top = topRows(rows, comparator(pageable.getSort()), to);
+            List<Ship> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(toShip(top[i]));
+            }
+            return new PageImpl<>(content, pageable, rows.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] scan(ShipFilter filter) {
+        BitSet planetMatches = filter.getPlanet() == null ? null : matchingPlanets(filter.getPlanet());
+        String name = filter.getName() == null ? null : foldCase(filter.getName());
+        return ForkJoinPool.commonPool().invoke(new ScanTask(filter, name, planetMatches, 0, size));
+    }
+
+    private boolean matches(int row, ShipFilter filter, String name, BitSet planetMatches) {
+        if (!live.get(row)) {
+            return false;
+        }
+        if (name != null && (searchNames[row] == null || !searchNames[row].contains(name))) {
+            return false;
+        }
+        if (planetMatches != null && (planetCode[row] < 0 || !planetMatches.get(planetCode[row]))) {
+            return false;
+        }
+        if (filter.getShipType() != null && shipType[row] != filter.getShipType().ordinal()) {
+            return false;
+        }
+        if (filter.getIsUsed() != null && (nulls.get(nullBit(row, NULL_USED)) || used.get(row) != filter.getIsUsed())) {
+            return false;
+        }
+        if ((filter.getAfter() != null || filter.getBefore() != null)
+                && (nulls.get(nullBit(row, NULL_PROD_DATE))
+                || filter.getAfter() != null && prodDate[row] < filter.getAfter()
+                || filter.getBefore() != null && prodDate[row] > filter.getBefore())) {
+            return false;
+        }
+        if ((filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null)
+                && (nulls.get(nullBit(row, NULL_CREW_SIZE))
+                || filter.getMinCrewSize() != null && crewSize[row] < filter.getMinCrewSize()
+                || filter.getMaxCrewSize() != null && crewSize[row] > filter.getMaxCrewSize())) {
+            return false;
+        }
+        return inRange(speed[row], filter.getMinSpeed(), filter.getMaxSpeed())
+                && inRange(rating[row], filter.getMinRating(), filter.getMaxRating());
+    }
+
+    private static boolean inRange(double value, Double min, Double max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return !Double.isNaN(value) && (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private BitSet matchingPlanets(String planet) {
+        String folded = foldCase(planet);
+        BitSet result = new BitSet(planets.size());
+        for (int code = 0; code < planets.size(); code++) {
+            if (foldCase(planets.get(code)).contains(folded)) {
+                result.set(code);
+            }
+        }
+        return result;
+    }
+
+    // the same lower-cased substring match as the SQL filter, whatever the column collation
+    private static String foldCase(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private Comparator<Integer> comparator(Sort sort) {
+        Comparator<Integer> byId = Comparator.comparingLong(row -> ids[row]);
+        Sort.Order order = sort.iterator().hasNext() ? sort.iterator().next() : null;
+        if (order == null || "id".equals(order.getProperty())) {
+            return byId;
+        }
+        Comparator<Integer> byKey;
+        switch (order.getProperty()) {
+            case "speed":
+                byKey = Comparator.comparingDouble(row -> nullsFirst(speed[row]));
+                break;
+            case "rating":
+                byKey = Comparator.comparingDouble(row -> nullsFirst(rating[row]));
+                break;
+            case "prodDate":
+                byKey = Comparator.comparingLong(row -> nulls.get(nullBit(row, NULL_PROD_DATE)) ? Long.MIN_VALUE : prodDate[row]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported sort property " + order.getProperty());
+        }
+        return byKey.thenComparing(byId);
+    }
+
+    private static double nullsFirst(double value) {
+        return Double.isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+    }
+
+    private static Integer[] topRows(int[] rows, Comparator<Integer> comparator, int k) {
+        if (k >= rows.length / 4) {
+            Integer[] sorted = new Integer[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                sorted[i] = rows[i];
+            }
+            Arrays.sort(sorted, comparator);
+            return sorted;
+        }
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, comparator.reversed());
+        for (int row : rows) {
+            heap.add(row);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        Integer[] top = heap.toArray(new Integer[0]);
+        Arrays.sort(top, comparator);
+        return top;
+    }
+
+    private static int nullBit(int row, int column) {
+        return row * NULL_COLUMNS + column;
+    }
+
+    private void write(int row, Ship ship) {
+        ids[row] = ship.getId();
+        names[row] = ship.getName();
+        searchNames[row] = ship.getName() == null ? null : foldCase(ship.getName());
+        planetCode[row] = ship.getPlanet() == null ? -1 : planetCodes.computeIfAbsent(ship.getPlanet(), planet -> {
+            planets.add(planet);
+            return planets.size() - 1;
+        });
+        shipType[row] = ship.getShipType() == null ? -1 : (byte) ship.getShipType().ordinal();
+        speed[row] = ship.getSpeed() == null ? Double.NaN : ship.getSpeed();
+        rating[row] = ship.getRating() == null ? Double.NaN : ship.getRating();
+        crewSize[row] = ship.getCrewSize() == null ? 0 : ship.getCrewSize();
+        prodDate[row] = ship.getProdDate() == null ? 0 : ShipDates.toDateColumn(ship.getProdDate());
+        used.set(row, Boolean.TRUE.equals(ship.isUsed()));
+        nulls.set(nullBit(row, NULL_USED), ship.isUsed() == null);
+        nulls.set(nullBit(row, NULL_PROD_DATE), ship.getProdDate() == null);
+        nulls.set(nullBit(row, NULL_CREW_SIZE), ship.getCrewSize() == null);
+        live.set(row);
+    }
+
+    private Ship toShip(int row) {
+        Ship ship = new Ship();
+        ship.setId(ids[row]);
+        ship.setName(names[row]);
+        ship.setPlanet(planetCode[row] < 0 ? null : planets.get(planetCode[row]));
+        ship.setShipType(shipType[row] < 0 ? null : SHIP_TYPES[shipType[row]]);
+        ship.setProdDate(nulls.get(nullBit(row, NULL_PROD_DATE)) ? null : new Date(prodDate[row]));
+        ship.setUsed(nulls.get(nullBit(row, NULL_USED)) ? null : used.get(row));
+        ship.setSpeed(Double.isNaN(speed[row]) ? null : speed[row]);
+        ship.setCrewSize(nulls.get(nullBit(row, NULL_CREW_SIZE)) ? null : crewSize[row]);
+        ship.setRating(Double.isNaN(rating[row]) ? null : rating[row]);
+        return ship;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        speed = Arrays.copyOf(speed, newCapacity);
+        rating = Arrays.copyOf(rating, newCapacity);
+        crewSize = Arrays.copyOf(crewSize, newCapacity);
+        prodDate = Arrays.copyOf(prodDate, newCapacity);
+        planetCode = Arrays.copyOf(planetCode, newCapacity);
+        shipType = Arrays.copyOf(shipType, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        searchNames = Arrays.copyOf(searchNames, newCapacity);
+    }
+
+    private void compact() {
+        List<Ship> rows = new ArrayList<>(rowById.size());
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            rows.add(toShip(row));
+        }
+        size = 0;
+        deleted = 0;
+        live.clear();
+        nulls.clear();
+        used.clear();
+        rowById.clear();
+        Arrays.fill(names, null);
+        Arrays.fill(searchNames, null);
+        for (Ship ship : rows) {
+            rowById.put(ship.getId(), size);
+            write(size++, ship);
+        }
+    }
+
+    private class ScanTask extends RecursiveTask<int[]> {
+
+        private final ShipFilter filter;
+        private final String name;
+        private final BitSet planetMatches;
+        private final int from;
+        private final int to;
+
+        ScanTask(ShipFilter filter, String name, BitSet planetMatches, int from, int to) {
+            this.filter = filter;
+            this.name = name;
+            this.planetMatches = planetMatches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                int[] result = new int[to - from];
+                int count = 0;
+                for (int row = from; row < to; row++) {
+                    if (matches(row, filter, name, planetMatches)) {
+                        result[count++] = row;
+                    }
+                }
+                return Arrays.copyOf(result, count);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(filter, name, planetMatches, from, middle);
+            left.fork();
+            int[] right = new ScanTask(filter, name, planetMatches, middle, to).compute();
+            int[] leftRows = left.join();
+
+            int[] result = Arrays.copyOf(leftRows, leftRows.length + right.length);
+            System.arraycopy(right, 0, result, leftRows.length, right.length);
+            return result;
+        }
+    }
+}
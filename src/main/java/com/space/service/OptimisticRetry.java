@@ -0,0 +1,70 @@
+package com.space.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Reruns work that lost an optimistic check or a lock race, a bounded number of times with jittered
+ * exponential backoff. Each attempt has to open its own transaction, so this must not be called inside one.
+ */
+@Service
+public class OptimisticRetry {
+
+    @Value("${ship.retry.maxAttempts}")
+    private int maxAttempts;
+
+    @Value("${ship.retry.backoffMs}")
+    private long backoffMs;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * @throws ConcurrencyFailureException from the last attempt when every attempt conflicted
+     */
+    public <T> T run(Supplier<T> task) {
+        calls.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return task.get();
+            } catch (ConcurrencyFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("calls", calls.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("exhausted", exhausted.sum());
+        return stats;
+    }
+
+    private void backoff(int attempt, ConcurrencyFailureException conflict) {
+        long bound = backoffMs << Math.min(attempt - 1, 10);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
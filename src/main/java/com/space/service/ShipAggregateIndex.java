@@ -0,0 +1,231 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-group count, min, avg and max of speed, rating and crewSize for the whole fleet, maintained on every
+ * write so that unfiltered dashboard groupings never touch the database. Min and max are kept as value
+ * histograms so that they stay exact when ships are removed.
+ */
+@Component
+public class ShipAggregateIndex implements ShipIndex {
+
+    // groups come back in the same order as ORDER BY on the column: nulls first, enums by name
+    private static final Comparator<Object> GROUP_ORDER = Comparator.nullsFirst(ShipAggregateIndex::compareGroups);
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<ShipGrouping, Map<Object, Accumulator>> groups = new EnumMap<>(ShipGrouping.class);
+
+    private volatile boolean ready;
+
+    public ShipAggregateIndex(@Value("${ship.index.aggregate.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        groups.put(ShipGrouping.SHIP_TYPE, new HashMap<>());
+        groups.put(ShipGrouping.IS_USED, new HashMap<>());
+        groups.put(ShipGrouping.YEAR, new HashMap<>());
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            entries.clear();
+            groups.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = enabled;
+    }
+
+    @Override
+    public void onSave(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(ship.getId());
+            Entry entry = new Entry(ship);
+            entries.put(ship.getId(), entry);
+            for (Map.Entry<ShipGrouping, Map<Object, Accumulator>> grouping : groups.entrySet()) {
+                grouping.getValue().computeIfAbsent(entry.group(grouping.getKey()), group -> new Accumulator()).add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean supports(ShipFilter filter, ShipGrouping grouping) {
+        return ready && filter.isEmpty() && groups.containsKey(grouping);
+    }
+
+    public List<ShipGroupStats> aggregate(ShipGrouping grouping) {
+        lock.readLock().lock();
+        try {
+            Map<Object, Accumulator> sorted = new TreeMap<>(GROUP_ORDER);
+            sorted.putAll(groups.get(grouping));
+            List<ShipGroupStats> stats = new ArrayList<>(sorted.size());
+            sorted.forEach((group, accumulator) -> stats.add(accumulator.toStats(group)));
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareGroups(Object left, Object right) {
+        if (left instanceof ShipType) {
+            return ((ShipType) left).name().compareTo(((ShipType) right).name());
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (Map.Entry<ShipGrouping, Map<Object, Accumulator>> grouping : groups.entrySet()) {
+            Object group = entry.group(grouping.getKey());
+            Accumulator accumulator = grouping.getValue().get(group);
+            accumulator.remove(entry);
+            if (accumulator.count == 0) {
+                grouping.getValue().remove(group);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final ShipType shipType;
+        private final Boolean isUsed;
+        private final Integer year;
+        private final Double speed;
+        private final Double rating;
+        private final Integer crewSize;
+
+        Entry(Ship ship) {
+            shipType = ship.getShipType();
+            isUsed = ship.isUsed();
+            year = ship.getProdDate() == null ? null : ShipDates.yearOf(ship.getProdDate().getTime());
+            speed = ship.getSpeed();
+            rating = ship.getRating();
+            crewSize = ship.getCrewSize();
+        }
+
+        Object group(ShipGrouping grouping) {
+            switch (grouping) {
+                case SHIP_TYPE:
+                    return shipType;
+                case IS_USED:
+                    return isUsed;
+                default:
+                    return year;
+            }
+        }
+    }
+
+    private static class Accumulator {
+        private long count;
+        private final Metric speed = new Metric();
+        private final Metric rating = new Metric();
+        private final Metric crewSize = new Metric();
+
+        void add(Entry entry) {
+            count++;
+            speed.add(entry.speed);
+            rating.add(entry.rating);
+            crewSize.add(entry.crewSize == null ? null : entry.crewSize.doubleValue());
+        }
+
+        void remove(Entry entry) {
+            count--;
+            speed.remove(entry.speed);
+            rating.remove(entry.rating);
+            crewSize.remove(entry.crewSize == null ? null : entry.crewSize.doubleValue());
+        }
+
+        ShipGroupStats toStats(Object group) {
+            Double minCrewSize = crewSize.min();
+            Double maxCrewSize = crewSize.max();
+            return new ShipGroupStats(group, count,
+                    speed.min(), speed.avg(), speed.max(),
+                    rating.min(), rating.avg(), rating.max(),
+                    minCrewSize == null ? null : minCrewSize.intValue(), crewSize.avg(),
+                    maxCrewSize == null ? null : maxCrewSize.intValue());
+        }
+    }
+
+    private static class Metric {
+        private final TreeMap<Double, Integer> values = new TreeMap<>();
+        private long count;
+        private double sum;
+
+        void add(Double value) {
+            if (value == null) {
+                return;
+            }
+            values.merge(value, 1, Integer::sum);
+            count++;
+            sum += value;
+        }
+
+        void remove(Double value) {
+            if (value == null) {
+                return;
+            }
+            values.computeIfPresent(value, (key, seen) -> seen == 1 ? null : seen - 1);
+            count--;
+            sum -= value;
+        }
+
+        Double min() {
+            return values.isEmpty() ? null : values.firstKey();
+        }
+
+        Double max() {
+            return values.isEmpty() ? null : values.lastKey();
+        }
+
+        Double avg() {
+            return count == 0 ? null : sum / count;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ShipBitmapIndex implements ShipIndex {
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap used = new RoaringBitmap();
+    private final RoaringBitmap unused = new RoaringBitmap();
+    private final Map<ShipType, RoaringBitmap> byType = new EnumMap<>(ShipType.class);
+    private final TreeMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final Map<Integer, Long> prodDates = new HashMap<>();
+
+    private volatile boolean ready;
+    private boolean overflow;
+
+    public ShipBitmapIndex(@Value("${ship.index.bitmap.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            overflow = false;
+            all.clear();
+            used.clear();
+            unused.clear();
+            byType.clear();
+            byYear.clear();
+            prodDates.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = enabled;
+    }
+
+    @Override
+    public void onSave(Ship ship) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ship.getId() > Integer.MAX_VALUE) {
+                overflow = true;
+                return;
+            }
+            int id = ship.getId().intValue();
+            remove(id);
+            all.add(id);
+            if (ship.isUsed() != null) {
+                (ship.isUsed() ? used : unused).add(id);
+            }
+            if (ship.getShipType() != null) {
+                byType.computeIfAbsent(ship.getShipType(), type -> new RoaringBitmap()).add(id);
+            }
+            if (ship.getProdDate() != null) {
+                long day = ShipDates.toDateColumn(ship.getProdDate());
+                byYear.computeIfAbsent(ShipDates.yearOf(day), year -> new RoaringBitmap()).add(id);
+                prodDates.put(id, day);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        if (!enabled || id > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean supports(ShipFilter filter) {
+        return ready
+                && filter.getName() == null
+                && filter.getPlanet() == null
+                && filter.getMinSpeed() == null
+                && filter.getMaxSpeed() == null
+                && filter.getMinCrewSize() == null
+                && filter.getMaxCrewSize() == null
+                && filter.getMinRating() == null
+                && filter.getMaxRating() == null;
+    }
+
+    public Long count(ShipFilter filter) {
+        if (!supports(filter)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return overflow ? null : resolve(filter).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap candidates(ShipFilter filter) {
+        if (!supports(filter)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return overflow ? null : resolve(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long bytes = all.getLongSizeInBytes() + used.getLongSizeInBytes() + unused.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : byType.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byYear.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            stats.put("ready", ready && !overflow);
+            stats.put("ships", all.getLongCardinality());
+            stats.put("yearBuckets", byYear.size());
+            stats.put("bitmapBytes", bytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap resolve(ShipFilter filter) {
+        RoaringBitmap result = all.clone();
+        if (filter.getShipType() != null) {
+            RoaringBitmap type = byType.get(filter.getShipType());
+            result = type == null ? new RoaringBitmap() : RoaringBitmap.and(result, type);
+        }
+        if (filter.getIsUsed() != null) {
+            result = RoaringBitmap.and(result, filter.getIsUsed() ? used : unused);
+        }
+        if (filter.getAfter() != null || filter.getBefore() != null) {
+            result = RoaringBitmap.and(result, byDate(filter.getAfter(), filter.getBefore()));
+        }
+        return result;
+    }
+
+    private RoaringBitmap byDate(Long after, Long before) {
+        RoaringBitmap result = new RoaringBitmap();
+        if (byYear.isEmpty() || after != null && before != null && after > before) {
+            return result;
+        }
+        int fromYear = after == null ? byYear.firstKey() : ShipDates.yearOf(after);
+        int toYear = before == null ? byYear.lastKey() : ShipDates.yearOf(before);
+        if (fromYear > toYear) {
+            return result;
+        }
+        NavigableMap<Integer, RoaringBitmap> years = byYear.subMap(fromYear, true, toYear, true);
+        for (Map.Entry<Integer, RoaringBitmap> entry : years.entrySet()) {
+            int year = entry.getKey();
+            boolean fromCovered = after == null || ShipDates.startOfYear(year) >= after;
+            boolean toCovered = before == null || ShipDates.startOfYear(year + 1) - 1 <= before;
+            if (fromCovered && toCovered) {
+                result.or(entry.getValue());
+                continue;
+            }
+            for (int id : entry.getValue()) {
+                long day = prodDates.get(id);
+                if ((after == null || day >= after) && (before == null || day <= before)) {
+                    result.add(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void remove(int id) {
+        if (!all.contains(id)) {
+            return;
+        }
+        all.remove(id);
+        used.remove(id);
+        unused.remove(id);
+        for (RoaringBitmap bitmap : byType.values()) {
+            bitmap.remove(id);
+        }
+        Long day = prodDates.remove(id);
+        if (day != null) {
+            RoaringBitmap year = byYear.get(ShipDates.yearOf(day));
+            year.remove(id);
+            if (year.isEmpty()) {
+                byYear.remove(ShipDates.yearOf(day));
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Fans committed ship changes out to subscribers. Each subscriber has a bounded queue that is drained by a
+ * small shared pool only while it holds something, so idle subscribers cost no thread. A subscriber whose
+ * queue overflows is evicted instead of slowing down the others.
+ */
+@Service
+public class ShipChangeFeed {
+
+    private static final ShipChange HEARTBEAT = new ShipChange();
+
+    public interface Sink {
+
+        void send(ShipChange change) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /**
+         * Ends the stream from the server side; {@code evicted} is set when the subscriber fell behind. An evicted
+         * sink is closed by a drainer once its last write returns, never by the thread that published the change.
+         */
+        void close(boolean evicted);
+    }
+
+    @Value("${ship.changes.maxSubscribers}")
+    private int maxSubscribers;
+
+    @Value("${ship.changes.bufferSize}")
+    private int bufferSize;
+
+    @Value("${ship.changes.threads}")
+    private int threads;
+
+    @Value("${ship.changes.heartbeatMs}")
+    private long heartbeatMs;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private ExecutorService drainers;
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        drainers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ship-changes-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ship-changes-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(() -> subscriptions.forEach(subscription -> subscription.offer(HEARTBEAT)),
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        drainers.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.close(false));
+    }
+
+    /**
+     * @throws RejectedExecutionException if the subscriber limit is reached
+     */
+    public Subscription subscribe(Predicate<Ship> filter, Sink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("too many change feed subscribers");
+        }
+        Subscription subscription = new Subscription(filter, sink);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Called after the surrounding transaction commits, or right away when the change was made outside one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ShipChange change) {
+        ShipChange numbered = new ShipChange(sequence.incrementAndGet(), change);
+        ShipChange left = null;
+        for (Subscription subscription : subscriptions) {
+            if (numbered.getShip() == null || subscription.filter.test(numbered.getShip())) {
+                subscription.offer(numbered);
+            } else if (numbered.getPrevious() != null && subscription.filter.test(numbered.getPrevious())) {
+                // the subscriber shows a ship that moved out of its filter and would otherwise keep it forever
+                if (left == null) {
+                    left = numbered.left();
+                }
+                subscription.offer(left);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("bufferSize", bufferSize);
+        stats.put("published", sequence.get());
+        stats.put("delivered", delivered.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    public class Subscription {
+        private final Predicate<Ship> filter;
+        private final Sink sink;
+        private final BlockingQueue<ShipChange> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean evictionPending = new AtomicBoolean();
+
+        private Subscription(Predicate<Ship> filter, Sink sink) {
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        /**
+         * Drops the subscription after the client went away; the sink is not called.
+         */
+        public void cancel() {
+            release();
+        }
+
+        private void offer(ShipChange change) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(change)) {
+                evict();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                drainers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                ShipChange change;
+                while (!closed.get() && (change = queue.poll()) != null) {
+                    if (change == HEARTBEAT) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send(change);
+                        delivered.increment();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                cancel();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                if (evictionPending.compareAndSet(true, false)) {
+                    sink.close(true);
+                }
+            } else if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                drainers.execute(this::drain);
+            }
+        }
+
+        // the publisher only marks the subscription closed: closing the sink writes to the slow client, and
+        // would wait behind the drainer that is still stuck writing to it
+        private void evict() {
+            if (!release()) {
+                return;
+            }
+            evicted.increment();
+            evictionPending.set(true);
+            if (draining.compareAndSet(false, true)) {
+                drainers.execute(this::drain);
+            }
+        }
+
+        private void close(boolean slow) {
+            if (release()) {
+                sink.close(slow);
+            }
+        }
+
+        private boolean release() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            subscriptions.remove(this);
+            subscriberCount.decrementAndGet();
+            queue.clear();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFacets;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Counts every facet but the planets in one scan of the ships that match the name and planet filters: each count
+ * is a conditional sum over the ships that pass all other filters, so each choice shows how many ships it would
+ * match if it were picked instead. The numeric buckets cover the values the controller accepts for a ship.
+ */
+class ShipFacetCounter {
+
+    private static final int FIRST_YEAR = 2800;
+    // a rating is at most 80 * 0.99, since the reference year is never before the production year
+    private static final double MAX_RATING = 79.2;
+
+    private final ShipService shipService;
+    private final ShipRepository shipRepository;
+
+    ShipFacetCounter(ShipService shipService, ShipRepository shipRepository) {
+        this.shipService = shipService;
+        this.shipRepository = shipRepository;
+    }
+
+    ShipFacets count(ShipFilter filter, int topPlanets) {
+        List<Specification<Ship>> conditions = new ArrayList<>();
+        conditions.add(others(filter, copy -> {
+        }));
+        Specification<Ship> otherThanType = others(filter, copy -> copy.setShipType(null));
+        for (ShipType shipType : ShipType.values()) {
+            conditions.add(otherThanType.and(shipService.filterByShipType(shipType)));
+        }
+        Specification<Ship> otherThanUsage = others(filter, copy -> copy.setIsUsed(null));
+        conditions.add(otherThanUsage.and(shipService.filterByUsage(true)));
+        conditions.add(otherThanUsage.and(shipService.filterByUsage(false)));
+
+        // bounds halfway between two cents, so that 0.3 lands in [0.3, 0.4) despite binary rounding
+        Histogram<Double> speed = new Histogram<>("speed", 100, 10, 0, 9, key -> (key * 10 - 0.5) / 100);
+        speed.addConditions(others(filter, copy -> {
+            copy.setMinSpeed(null);
+            copy.setMaxSpeed(null);
+        }), conditions);
+        Histogram<Integer> crewSize = new Histogram<>("crewSize", 1, 1000, 0, 9, key -> (int) key * 1000);
+        crewSize.addConditions(others(filter, copy -> {
+            copy.setMinCrewSize(null);
+            copy.setMaxCrewSize(null);
+        }), conditions);
+        Histogram<Double> rating = new Histogram<>("rating", 100, 500, 0, Math.round(MAX_RATING * 100) / 500,
+                key -> (key * 500 - 0.5) / 100);
+        rating.addConditions(others(filter, copy -> {
+            copy.setMinRating(null);
+            copy.setMaxRating(null);
+        }), conditions);
+        Histogram<Date> year = new Histogram<>("prodDate", 1, 10, FIRST_YEAR / 10, Ship.CURRENT_YEAR / 10,
+                key -> new Date(ShipDates.startOfYear((int) key * 10)));
+        year.addConditions(others(filter, copy -> {
+            copy.setAfter(null);
+            copy.setBefore(null);
+        }), conditions);
+
+        long[] counts = shipRepository.countEach(shipService.filterBy(scope(filter)), conditions);
+
+        int index = 0;
+        long total = counts[index++];
+        Map<String, Long> types = new LinkedHashMap<>();
+        for (ShipType shipType : ShipType.values()) {
+            types.put(shipType.name(), counts[index++]);
+        }
+        Map<String, Long> usage = new LinkedHashMap<>();
+        usage.put("true", counts[index++]);
+        usage.put("false", counts[index++]);
+        index = speed.setCounts(counts, index);
+        index = crewSize.setCounts(counts, index);
+        index = rating.setCounts(counts, index);
+        year.setCounts(counts, index);
+
+        // the planets are open-ended, so they take a grouped query that returns only the top ones
+        List<ShipFacets.ValueCount> planets = new ArrayList<>();
+        shipRepository.countByValue(shipService.filterBy(without(filter, copy -> copy.setPlanet(null))), "planet", topPlanets)
+                .forEach((value, count) -> planets.add(new ShipFacets.ValueCount((String) value, count)));
+
+        return new ShipFacets(total, types, usage, planets,
+                speed.buckets(), crewSize.buckets(), rating.buckets(), year.buckets());
+    }
+
+    // the name and planet filters apply to every count but the planets', so they narrow the scan itself
+    private static ShipFilter scope(ShipFilter filter) {
+        ShipFilter scope = new ShipFilter();
+        scope.setName(filter.getName());
+        scope.setPlanet(filter.getPlanet());
+        return scope;
+    }
+
+    private Specification<Ship> others(ShipFilter filter, Consumer<ShipFilter> clearOwnFilter) {
+        return Specification.where(shipService.filterBy(without(filter, copy -> {
+            copy.setName(null);
+            copy.setPlanet(null);
+            clearOwnFilter.accept(copy);
+        })));
+    }
+
+    private static ShipFilter without(ShipFilter filter, Consumer<ShipFilter> clearOwnFilter) {
+        ShipFilter copy = new ShipFilter();
+        copy.setName(filter.getName());
+        copy.setPlanet(filter.getPlanet());
+        copy.setShipType(filter.getShipType());
+        copy.setAfter(filter.getAfter());
+        copy.setBefore(filter.getBefore());
+        copy.setIsUsed(filter.getIsUsed());
+        copy.setMinSpeed(filter.getMinSpeed());
+        copy.setMaxSpeed(filter.getMaxSpeed());
+        copy.setMinCrewSize(filter.getMinCrewSize());
+        copy.setMaxCrewSize(filter.getMaxCrewSize());
+        copy.setMinRating(filter.getMinRating());
+        copy.setMaxRating(filter.getMaxRating());
+        clearOwnFilter.accept(copy);
+        return copy;
+    }
+
+    /**
+     * Fixed-width buckets over values scaled to integers; bucket {@code key} holds the values from
+     * {@code lowerBound(key)} up to, but not including, {@code lowerBound(key + 1)}.
+     */
+    private static class Histogram<T extends Comparable<? super T>> {
+        private final String fieldName;
+        private final long scale;
+        private final long width;
+        private final long firstKey;
+        private final long[] counts;
+        private final LongFunction<T> lowerBound;
+
+        Histogram(String fieldName, long scale, long width, long firstKey, long lastKey, LongFunction<T> lowerBound) {
+            this.fieldName = fieldName;
+            this.scale = scale;
+            this.width = width;
+            this.firstKey = firstKey;
+            this.counts = new long[(int) (lastKey - firstKey + 1)];
+            this.lowerBound = lowerBound;
+        }
+
+        void addConditions(Specification<Ship> others, List<Specification<Ship>> conditions) {
+            for (int i = 0; i < counts.length; i++) {
+                conditions.add(others.and(inBucket(lowerBound.apply(firstKey + i), lowerBound.apply(firstKey + i + 1))));
+            }
+        }
+
+        int setCounts(long[] results, int from) {
+            System.arraycopy(results, from, counts, 0, counts.length);
+            return from + counts.length;
+        }
+
+        // only the buckets from the first to the last one that holds a ship are listed
+        List<ShipFacets.Bucket> buckets() {
+            List<ShipFacets.Bucket> buckets = new ArrayList<>();
+            int first = 0;
+            int last = counts.length - 1;
+            while (first <= last && counts[first] == 0) {
+                first++;
+            }
+            while (last >= first && counts[last] == 0) {
+                last--;
+            }
+            for (int i = first; i <= last; i++) {
+                long key = firstKey + i;
+                buckets.add(new ShipFacets.Bucket(bound(key), bound(key + 1), counts[i]));
+            }
+            return buckets;
+        }
+
+        private Specification<Ship> inBucket(T from, T to) {
+            return new Specification<Ship>() {
+                @Override
+                public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                    return criteriaBuilder.and(
+                            criteriaBuilder.greaterThanOrEqualTo(root.<T>get(fieldName), from),
+                            criteriaBuilder.lessThan(root.<T>get(fieldName), to));
+                }
+            };
+        }
+
+        private Number bound(long key) {
+            return scale == 1 ? (Number) (key * width) : (Number) (key * width / (double) scale);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+public interface ShipIndex {
+
+    void clear();
+
+    void markReady();
+
+    void onSave(Ship ship);
+
+    void onDelete(Long id);
+}
@@ -0,0 +1,190 @@
+package com.space.service;
+
+import com.space.model.RatingJob;
+import com.space.model.RatingJobChunk;
+import com.space.repository.RatingJobChunkRepository;
+import com.space.repository.RatingJobRepository;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rewrites the stored rating of every ship for a new reference year. The id range is split into chunks
+ * that are recorded in rating_job_chunk and updated in parallel, one transaction per chunk, so readers
+ * are never blocked and an interrupted job continues with the chunks that are still pending.
+ */
+@Service
+public class ShipRatingJob {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Autowired
+    private RatingJobRepository jobRepository;
+
+    @Autowired
+    private RatingJobChunkRepository chunkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Value("${ship.rating.chunkSize}")
+    private int chunkSize;
+
+    @Value("${ship.rating.threads}")
+    private int threads;
+
+    private final Lock lock = new ReentrantLock();
+    private ExecutorService executor;
+    private volatile CompletableFuture<Void> running;
+    private volatile Throwable failure;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "rating-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        restoreReferenceYear();
+        jobRepository.findFirstByStatusOrderByIdDesc(RatingJob.Status.RUNNING).ifPresent(job -> start(job.getReferenceYear()));
+    }
+
+    // the year of the newest job that was not cancelled is the one the stored ratings are (being) computed for
+    void restoreReferenceYear() {
+        jobRepository.findFirstByStatusInOrderByIdDesc(EnumSet.of(RatingJob.Status.DONE, RatingJob.Status.RUNNING))
+                .ifPresent(job -> shipService.setReferenceYear(job.getReferenceYear()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a recomputation for the given year, or resumes the unfinished job for the same year.
+     *
+     * @throws IllegalStateException if a recomputation is already running in this process
+     */
+    public Map<String, Object> start(int referenceYear) {
+        lock.lock();
+        try {
+            if (isRunning()) {
+                throw new IllegalStateException("rating recomputation is already running");
+            }
+            RatingJob job = jobRepository.findFirstByStatusOrderByIdDesc(RatingJob.Status.RUNNING).orElse(null);
+            if (job != null && job.getReferenceYear() != referenceYear) {
+                job.setStatus(RatingJob.Status.CANCELLED);
+                jobRepository.save(job);
+                job = null;
+            }
+            if (job == null) {
+                job = createJob(referenceYear);
+            }
+            shipService.setReferenceYear(referenceYear);
+            run(job);
+            return progress(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        CompletableFuture<Void> current = running;
+        return current != null && !current.isDone();
+    }
+
+    public Optional<Map<String, Object>> progress() {
+        return jobRepository.findFirstByOrderByIdDesc().map(this::progress);
+    }
+
+    private RatingJob createJob(int referenceYear) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Long minId = shipRepository.findMinId();
+            Long maxId = shipRepository.findMaxId();
+            List<long[]> ranges = new ArrayList<>();
+            if (minId != null) {
+                for (long start = minId; start <= maxId; start += chunkSize) {
+                    ranges.add(new long[]{start, Math.min(start + chunkSize - 1, maxId)});
+                }
+            }
+            RatingJob job = jobRepository.save(new RatingJob(referenceYear, ranges.size()));
+            List<RatingJobChunk> chunks = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                chunks.add(new RatingJobChunk(job.getId(), range[0], range[1]));
+            }
+            chunkRepository.saveAll(chunks);
+            return job;
+        });
+    }
+
+    private void run(RatingJob job) {
+        List<RatingJobChunk> pending = chunkRepository.findByJobIdAndUpdatedIsNullOrderByStartId(job.getId());
+        CompletableFuture<?>[] chunks = new CompletableFuture<?>[pending.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            RatingJobChunk chunk = pending.get(i);
+            chunks[i] = CompletableFuture.runAsync(() -> recompute(chunk, job.getReferenceYear()), executor);
+        }
+        failure = null;
+        running = CompletableFuture.allOf(chunks).whenComplete((ignored, error) -> {
+            if (error != null) {
+                failure = error;
+                return;
+            }
+            job.setStatus(RatingJob.Status.DONE);
+            jobRepository.save(job);
+        });
+    }
+
+    // the ratings and the chunk's completion commit together, so a resumed job never redoes or skips a chunk;
+    // the chunk's ships are refreshed in the indexes as soon as it commits
+    private void recompute(RatingJobChunk chunk, int referenceYear) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // a chunk competes for row locks with single-ship writes; losing a lock race is worth another try
+        optimisticRetry.run(() -> transaction.execute(status -> {
+            int updated = shipService.recomputeRatings(chunk.getStartId(), chunk.getEndId(), referenceYear);
+            chunk.setUpdated(updated);
+            return chunkRepository.save(chunk);
+        }));
+    }
+
+    private Map<String, Object> progress(RatingJob job) {
+        RatingJob.Status status = jobRepository.findById(job.getId()).map(RatingJob::getStatus).orElse(job.getStatus());
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("jobId", job.getId());
+        progress.put("referenceYear", job.getReferenceYear());
+        progress.put("status", status == RatingJob.Status.RUNNING && failure != null && !isRunning() ? "FAILED" : status.name());
+        progress.put("chunks", job.getChunks());
+        progress.put("completedChunks", chunkRepository.countByJobIdAndUpdatedIsNotNull(job.getId()));
+        progress.put("updatedShips", chunkRepository.sumUpdated(job.getId()));
+        if (failure != null) {
+            progress.put("error", String.valueOf(failure.getCause() != null ? failure.getCause().getMessage() : failure.getMessage()));
+        }
+        return progress;
+    }
+}
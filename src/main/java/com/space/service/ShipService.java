@@ -1,26 +1,103 @@
 package com.space.service;
 
-import com.space.controller.ShipOrder;
 import com.space.model.Ship;
+import com.space.model.ShipCursor;
+import com.space.model.ShipDelta;
+import com.space.model.ShipFacets;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipOrder;
 import com.space.model.ShipType;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ShipService {
 
     List<Ship> getAllShips(Specification<Ship> specification, Pageable pageable);
 
+    List<Ship> getAllShips(ShipFilter filter, Pageable pageable);
+
+    Page<Ship> getShipsPage(ShipFilter filter, Pageable pageable);
+
+    long countShips(ShipFilter filter);
+
+    void exportShips(ShipFilter filter, Sort sort, Consumer<Ship> consumer);
+
+    List<ShipGroupStats> aggregateShips(ShipFilter filter, ShipGrouping grouping);
+
+    ShipFacets getFacets(ShipFilter filter, int topPlanets);
+
+    ShipDelta getChangesSince(long since, Long afterId, int limit);
+
+    long getCommittedVersion();
+
+    long getLastModified();
+
+    Page<Ship> getShipsPage(Specification<Ship> specification, Pageable pageable);
+
+    Slice<Ship> getShipsSlice(Specification<Ship> specification, Pageable pageable);
+
+    List<Ship> getShipsAfter(Specification<Ship> specification, ShipOrder order, ShipCursor cursor, int limit);
+
+    long countShips(Specification<Ship> specification);
+
     void saveShip(Ship ship);
 
+    void saveShips(List<Ship> ships);
+
+    int updateShips(ShipFilter filter, Ship changes);
+
+    int deleteShips(ShipFilter filter);
+
     Optional<Ship> getShipById(Long id);
 
-    void deleteShip(Long id);
+    Optional<Ship> updateShip(Long id, Ship changes);
+
+    /**
+     * Updates the ship only while it still has {@code expectedVersion}; empty if it is missing or has moved on.
+     */
+    Optional<Ship> updateShip(Long id, Ship changes, long expectedVersion);
+
+    boolean deleteShip(Long id);
+
+    /**
+     * Recomputes the stored rating of one ship for the current reference year, retrying when a concurrent
+     * write wins the optimistic check.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException if every attempt conflicted
+     */
+    Optional<Ship> recomputeRating(Long id);
+
+    /**
+     * Recomputes the stored ratings of the ships in an id range within the caller's transaction. The indexes
+     * pick the new ratings up once that transaction commits.
+     */
+    int recomputeRatings(Long fromId, Long toId, int referenceYear);
+
+    void reindex();
+
+    int getReferenceYear();
+
+    void setReferenceYear(int referenceYear);
 
 //    Specifications block
 
+    Specification<Ship> filterBy(ShipFilter filter);
+
+    Specification<Ship> filterById(Long id);
+
+    Specification<Ship> filterByChangeVersion(long version);
+
+    Specification<Ship> filterByIdRange(Long fromId, Long toId);
+
     Specification<Ship> filterByName(String name);
 
     Specification<Ship> filterByPlanet(String planet);
@@ -36,4 +113,6 @@ public interface ShipService {
     Specification<Ship> filterByCrewSize(Integer min, Integer max);
 
     Specification<Ship> filterByRating(Double min, Double max);
+
+    Specification<Ship> filterAfter(ShipCursor cursor);
 }
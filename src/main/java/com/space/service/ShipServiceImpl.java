@@ -1,45 +1,539 @@
 package com.space.service;
 
+import com.space.config.ReadWriteRoutingDataSource;
 import com.space.model.Ship;
+import com.space.model.ShipChange;
+import com.space.model.ShipCursor;
+import com.space.model.ShipDates;
+import com.space.model.ShipDelta;
+import com.space.model.ShipFacets;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipOrder;
+import com.space.model.ShipTombstone;
 import com.space.model.ShipType;
+import com.space.repository.BulkWrite;
 import com.space.repository.ShipRepository;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ShipServiceImpl implements ShipService {
+    private static final int REINDEX_CHUNK_SIZE = 1000;
+    // not a backslash, which MySQL would read as an escape inside the ESCAPE literal itself
+    private static final char LIKE_ESCAPE = '!';
+
     @Autowired
     private ShipRepository shipRepository;
 
+    @Autowired
+    private ShipTrigramIndex trigramIndex;
+
+    @Autowired
+    private ColumnarShipStore columnarStore;
+
+    @Autowired
+    private ShipBitmapIndex bitmapIndex;
+
+    @Autowired
+    private ShipAggregateIndex aggregateIndex;
+
+    @Autowired
+    private List<ShipIndex> shipIndexes;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${db.batchSize}")
+    private int batchSize;
+
+    @Value("${db.exportFetchSize}")
+    private int exportFetchSize;
+
+    @Value("${ship.rating.referenceYear}")
+    private volatile int referenceYear;
+
+    @PostConstruct
     @Override
+    public void reindex() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        shipRepository.refreshCommittedVersion();
+        shipIndexes.forEach(ShipIndex::clear);
+        List<Ship> chunk = getShipsAfter(null, ShipOrder.ID, null, REINDEX_CHUNK_SIZE);
+        while (!chunk.isEmpty()) {
+            for (Ship ship : chunk) {
+                shipIndexes.forEach(index -> index.onSave(ship));
+            }
+            ShipCursor last = ShipCursor.of(ShipOrder.ID, chunk.get(chunk.size() - 1));
+            chunk = getShipsAfter(null, ShipOrder.ID, last, REINDEX_CHUNK_SIZE);
+        }
+        shipIndexes.forEach(ShipIndex::markReady);
+    }
+
+    @Override
+    public int getReferenceYear() {
+        return referenceYear;
+    }
+
+    @Override
+    public void setReferenceYear(int referenceYear) {
+        this.referenceYear = referenceYear;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Ship> getAllShips(Specification<Ship> specification, Pageable pageable) {
         return shipRepository.findAll(specification, pageable).getContent();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Ship> getAllShips(ShipFilter filter, Pageable pageable) {
+        return getShipsPage(filter, pageable).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Ship> getShipsPage(ShipFilter filter, Pageable pageable) {
+        if (columnarStore.isActive()) {
+            return columnarStore.find(filter, pageable);
+        }
+        Long total = bitmapIndex.count(filter);
+        if (total != null) {
+            List<Ship> content = getShipsSlice(filterBy(filter), pageable).getContent();
+            return new PageImpl<>(content, pageable, total);
+        }
+        return getShipsPage(filterBy(filter), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countShips(ShipFilter filter) {
+        if (columnarStore.isActive()) {
+            return columnarStore.count(filter);
+        }
+        Long total = bitmapIndex.count(filter);
+        if (total != null) {
+            return total;
+        }
+        return countShips(filterBy(filter));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportShips(ShipFilter filter, Sort sort, Consumer<Ship> consumer) {
+        shipRepository.scroll(filterBy(filter), sort, exportFetchSize, consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShipGroupStats> aggregateShips(ShipFilter filter, ShipGrouping grouping) {
+        if (aggregateIndex.supports(filter, grouping)) {
+            return aggregateIndex.aggregate(grouping);
+        }
+        return shipRepository.aggregate(filterBy(filter), grouping);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipFacets getFacets(ShipFilter filter, int topPlanets) {
+        return new ShipFacetCounter(this, shipRepository).count(filter, topPlanets);
+    }
+
+    @Override
+    public long getCommittedVersion() {
+        return shipRepository.lastCommittedVersion();
+    }
+
+    @Override
+    public long getLastModified() {
+        return shipRepository.lastModified();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipDelta getChangesSince(long since, Long afterId, int limit) {
+        // the bound is the primary's; a replica still missing a change below it would make the client skip it for good
+        return ReadWriteRoutingDataSource.onPrimary(() -> changesSince(since, afterId, limit));
+    }
+
+    private ShipDelta changesSince(long since, Long afterId, int limit) {
+        // read the bound first: anything committed later is left for the next call instead of half-seen
+        long upTo = shipRepository.lastCommittedVersion();
+        List<Ship> ships = shipRepository.findChangedSince(since, afterId, upTo, limit + 1);
+        List<ShipTombstone> tombstones = shipRepository.findDeletedSince(since, afterId, upTo, limit + 1);
+
+        List<Ship> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int shipIndex = 0;
+        int tombstoneIndex = 0;
+        long lastVersion = 0;
+        Long lastId = null;
+        while (upserted.size() + deleted.size() < limit
+                && (shipIndex < ships.size() || tombstoneIndex < tombstones.size())) {
+            Ship ship = shipIndex < ships.size() ? ships.get(shipIndex) : null;
+            ShipTombstone tombstone = tombstoneIndex < tombstones.size() ? tombstones.get(tombstoneIndex) : null;
+            if (tombstone == null || ship != null && (ship.getChangeVersion() < tombstone.getChangeVersion()
+                    || ship.getChangeVersion() == tombstone.getChangeVersion() && ship.getId() < tombstone.getId())) {
+                upserted.add(ship);
+                lastVersion = ship.getChangeVersion();
+                lastId = ship.getId();
+                shipIndex++;
+            } else {
+                deleted.add(tombstone.getId());
+                lastVersion = tombstone.getChangeVersion();
+                lastId = tombstone.getId();
+                tombstoneIndex++;
+            }
+        }
+
+        boolean more = shipIndex < ships.size() || tombstoneIndex < tombstones.size();
+        return more
+                ? new ShipDelta(lastVersion, lastId, true, upserted, deleted)
+                : new ShipDelta(Math.max(upTo, since), null, false, upserted, deleted);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Ship> getShipsPage(Specification<Ship> specification, Pageable pageable) {
+        return shipRepository.findAll(specification, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Ship> getShipsSlice(Specification<Ship> specification, Pageable pageable) {
+        return shipRepository.findSlice(specification, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Ship> getShipsAfter(Specification<Ship> specification, ShipOrder order, ShipCursor cursor, int limit) {
+        Sort sort = order == ShipOrder.ID
+                ? Sort.by("id")
+                : Sort.by(order.getFieldName()).and(Sort.by("id"));
+        return shipRepository.findAll(Specification.where(specification).and(filterAfter(cursor)), sort, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countShips(Specification<Ship> specification) {
+        return shipRepository.count(specification);
+    }
+
+    @Override
+    @Transactional
     public void saveShip(Ship ship) {
-        shipRepository.save(ship);
+        Ship saved = shipRepository.save(ship);
+        indexAfterCommit(saved);
+        eventPublisher.publishEvent(ShipChange.created(saved));
+    }
+
+    @Override
+    @Transactional
+    public void saveShips(List<Ship> ships) {
+        shipRepository.saveInBatches(ships, batchSize);
+        ships.forEach(this::indexAfterCommit);
+        eventPublisher.publishEvent(ShipChange.bulk());
+    }
+
+    // the bulk statement is its own transaction; only the ships it wrote are read back into the indexes
+    @Override
+    public int updateShips(ShipFilter filter, Ship changes) {
+        BulkWrite updated = shipRepository.bulkUpdate(filterBy(filter), changes, referenceYear);
+        if (updated.getAffected() > 0) {
+            reindexUpdated(updated.getChangeVersion());
+            eventPublisher.publishEvent(ShipChange.bulk());
+        }
+        return updated.getAffected();
+    }
+
+    @Override
+    public int deleteShips(ShipFilter filter) {
+        BulkWrite deleted = shipRepository.bulkDelete(filterBy(filter));
+        if (deleted.getAffected() > 0) {
+            reindexDeleted(deleted.getChangeVersion());
+            eventPublisher.publishEvent(ShipChange.bulk());
+        }
+        return deleted.getAffected();
+    }
+
+    // a read-write transaction, so the committed rows are read from the primary rather than a lagging replica;
+    // a ship written again since then no longer carries the version and is indexed by that write instead
+    private void reindexUpdated(long changeVersion) {
+        TransactionTemplate transaction = readBack();
+        Long afterId = null;
+        List<Ship> chunk;
+        do {
+            Long after = afterId;
+            chunk = transaction.execute(status -> shipRepository.findChangedSince(
+                    after == null ? changeVersion - 1 : changeVersion, after, changeVersion, REINDEX_CHUNK_SIZE));
+            for (Ship ship : chunk) {
+                shipIndexes.forEach(index -> index.onSave(ship));
+                afterId = ship.getId();
+            }
+        } while (chunk.size() == REINDEX_CHUNK_SIZE);
+    }
+
+    private void reindexDeleted(long changeVersion) {
+        TransactionTemplate transaction = readBack();
+        Long afterId = null;
+        List<ShipTombstone> chunk;
+        do {
+            Long after = afterId;
+            chunk = transaction.execute(status -> shipRepository.findDeletedSince(
+                    after == null ? changeVersion - 1 : changeVersion, after, changeVersion, REINDEX_CHUNK_SIZE));
+            for (ShipTombstone tombstone : chunk) {
+                shipIndexes.forEach(index -> index.onDelete(tombstone.getId()));
+                afterId = tombstone.getId();
+            }
+        } while (chunk.size() == REINDEX_CHUNK_SIZE);
+    }
+
+    // a new transaction, since an after-commit callback would otherwise join the one that just committed
+    private TransactionTemplate readBack() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Ship> getShipById(Long id) {
         return shipRepository.findById(id);
     }
 
+    // every attempt is a transaction of its own, so any caller's transaction is suspended
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Ship> updateShip(Long id, Ship changes) {
+        return optimisticRetry.run(() -> updateShip(id, changes, null));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Ship> updateShip(Long id, Ship changes, long expectedVersion) {
+        try {
+            return updateShip(id, changes, Long.valueOf(expectedVersion));
+        } catch (OptimisticLockingFailureException e) {
+            // a concurrent write committed first, so the expected version is gone
+            return Optional.empty();
+        }
+    }
+
+    // the ship the event needs as its previous state is loaded anyway, so the write is the entity's own: dirty
+    // checking updates only the changed columns and its own cache entry, and checks @Version
+    private Optional<Ship> updateShip(Long id, Ship changes, Long expectedVersion) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            Optional<Ship> ship = shipRepository.findById(id);
+            if (expectedVersion != null) {
+                ship = ship.filter(current -> current.getChangeVersion() == expectedVersion);
+            }
+            if (!ship.isPresent() || !hasChanges(changes)) {
+                return ship;
+            }
+            Ship updated = ship.get();
+            Ship previous = copyOf(updated);
+            applyChanges(updated, changes);
+            Ship saved = shipRepository.save(updated);
+            indexAfterCommit(saved);
+            eventPublisher.publishEvent(ShipChange.updated(previous, saved));
+            return Optional.of(saved);
+        });
+    }
+
+    private static boolean hasChanges(Ship changes) {
+        return changes.getName() != null || changes.getPlanet() != null || changes.getShipType() != null
+                || changes.getProdDate() != null || changes.isUsed() != null || changes.getSpeed() != null
+                || changes.getCrewSize() != null;
+    }
+
+    // the fields a subscriber filter can look at, taken before the managed ship is changed in place
+    private static Ship copyOf(Ship ship) {
+        Ship copy = new Ship();
+        copy.setId(ship.getId());
+        copy.setName(ship.getName());
+        copy.setPlanet(ship.getPlanet());
+        copy.setShipType(ship.getShipType());
+        copy.setProdDate(ship.getProdDate());
+        copy.setUsed(ship.isUsed());
+        copy.setSpeed(ship.getSpeed());
+        copy.setCrewSize(ship.getCrewSize());
+        copy.setRating(ship.getRating());
+        return copy;
+    }
+
+    private void applyChanges(Ship ship, Ship changes) {
+        if (changes.getName() != null) {
+            ship.setName(changes.getName());
+        }
+        if (changes.getPlanet() != null) {
+            ship.setPlanet(changes.getPlanet());
+        }
+        if (changes.getShipType() != null) {
+            ship.setShipType(changes.getShipType());
+        }
+        if (changes.getProdDate() != null) {
+            ship.setProdDate(changes.getProdDate());
+        }
+        if (changes.isUsed() != null) {
+            ship.setUsed(changes.isUsed());
+        }
+        if (changes.getSpeed() != null) {
+            ship.setSpeed(changes.getSpeed());
+        }
+        if (changes.getCrewSize() != null) {
+            ship.setCrewSize(changes.getCrewSize());
+        }
+        if (changes.getProdDate() != null || changes.isUsed() != null || changes.getSpeed() != null) {
+            ship.setRating(ship.calculateRating(referenceYear));
+        }
+    }
+
     @Override
-    public void deleteShip(Long id) {
-        shipRepository.deleteById(id);
+    @Transactional
+    public boolean deleteShip(Long id) {
+        if (shipRepository.deleteShipById(id) == 0) {
+            return false;
+        }
+        afterCommit(() -> shipIndexes.forEach(index -> index.onDelete(id)));
+        eventPublisher.publishEvent(ShipChange.deleted(id));
+        return true;
+    }
+
+    // every attempt is a transaction of its own, so any caller's transaction is suspended
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Ship> recomputeRating(Long id) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return optimisticRetry.run(() -> transaction.execute(status -> {
+            Optional<Ship> ship = getShipById(id);
+            if (!ship.isPresent()) {
+                return ship;
+            }
+            // the flush compares the version read here with the row and fails if a concurrent write moved it on
+            Ship recomputed = ship.get();
+            Ship previous = copyOf(recomputed);
+            recomputed.setRating(recomputed.calculateRating(referenceYear));
+            Ship saved = shipRepository.save(recomputed);
+            indexAfterCommit(saved);
+            eventPublisher.publishEvent(ShipChange.updated(previous, saved));
+            return Optional.of(saved);
+        }));
+    }
+
+    @Override
+    @Transactional
+    public int recomputeRatings(Long fromId, Long toId, int referenceYear) {
+        BulkWrite updated = shipRepository.updateRatings(filterByIdRange(fromId, toId), referenceYear);
+        if (updated.getAffected() > 0) {
+            afterCommit(() -> reindexUpdated(updated.getChangeVersion()));
+        }
+        return updated.getAffected();
+    }
+
+    private void indexAfterCommit(Ship ship) {
+        afterCommit(() -> shipIndexes.forEach(index -> index.onSave(ship)));
+    }
+
+    // the indexes answer reads outside any transaction, so they must not see a write that may still roll back
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public Specification<Ship> filterBy(ShipFilter filter) {
+        return Specification.where(
+                filterByName(filter.getName())).and(
+                filterByPlanet(filter.getPlanet())).and(
+                filterByShipType(filter.getShipType())).and(
+                filterByDate(filter.getAfter(), filter.getBefore())).and(
+                filterByUsage(filter.getIsUsed())).and(
+                filterBySpeed(filter.getMinSpeed(), filter.getMaxSpeed())).and(
+                filterByCrewSize(filter.getMinCrewSize(), filter.getMaxCrewSize())).and(
+                filterByRating(filter.getMinRating(), filter.getMaxRating()));
+    }
+
+    @Override
+    public Specification<Ship> filterById(Long id) {
+        return new Specification<Ship>() {
+            @Override
+            public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return criteriaBuilder.equal(root.get("id"), id);
+            }
+        };
+    }
+
+    @Override
+    public Specification<Ship> filterByChangeVersion(long version) {
+        return new Specification<Ship>() {
+            @Override
+            public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return criteriaBuilder.equal(root.get("changeVersion"), version);
+            }
+        };
+    }
+
+    @Override
+    public Specification<Ship> filterByIdRange(Long fromId, Long toId) {
+        return new Specification<Ship>() {
+            @Override
+            public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return criteriaBuilder.between(root.get("id"), fromId, toId);
+            }
+        };
     }
 
     @Override
@@ -64,24 +558,22 @@ public class ShipServiceImpl implements ShipService {
 
     @Override
     public Specification<Ship> filterByDate(Long dateAfterMs, Long dateBeforeMs) {
+        Date after = dateAfterMs == null ? null : new Date(dateAfterMs);
+        Date before = dateBeforeMs == null ? null : new Date(dateBeforeMs);
         return new Specification<Ship>() {
             @Override
             public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
 
-                if (dateAfterMs == null && dateBeforeMs == null)
+                if (after == null && before == null)
                     return null;
-                if (dateAfterMs == null) {
-                    return criteriaBuilder.lessThanOrEqualTo(root.get("prodDate"),
-                            new Date(dateBeforeMs));
+                if (after == null) {
+                    return criteriaBuilder.lessThanOrEqualTo(root.get("prodDate"), before);
                 }
-                if (dateBeforeMs == null) {
-                    return criteriaBuilder.greaterThanOrEqualTo(root.get("prodDate"),
-                            new Date(dateAfterMs));
+                if (before == null) {
+                    return criteriaBuilder.greaterThanOrEqualTo(root.get("prodDate"), after);
                 }
 
-                return criteriaBuilder.between(root.get("prodDate"),
-                        new Date(dateAfterMs),
-                        new Date(dateBeforeMs));
+                return criteriaBuilder.between(root.get("prodDate"), after, before);
             }
         };
     }
@@ -150,21 +642,67 @@ public class ShipServiceImpl implements ShipService {
         };
     }
 
+    @Override
+    public Specification<Ship> filterAfter(ShipCursor cursor) {
+        return new Specification<Ship>() {
+            @Override
+            public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                if (cursor == null)
+                    return null;
+                Path<Long> id = root.get("id");
+                String fieldName = cursor.getOrder().getFieldName();
+                switch (cursor.getOrder()) {
+                    case SPEED:
+                    case RATING:
+                        return keysetPredicate(criteriaBuilder, root.get(fieldName), (Double) cursor.getValue(), id, cursor.getId());
+                    case DATE:
+                        return keysetPredicate(criteriaBuilder, root.get(fieldName), (Date) cursor.getValue(), id, cursor.getId());
+                    default:
+                        return criteriaBuilder.greaterThan(id, cursor.getId());
+                }
+            }
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate keysetPredicate(CriteriaBuilder cb, Path<T> field, T lastValue,
+                                                                               Path<Long> id, Long lastId) {
+        return cb.or(
+                cb.greaterThan(field, lastValue),
+                cb.and(cb.equal(field, lastValue), cb.greaterThan(id, lastId)));
+    }
+
     private Specification<Ship> getShipSpecification(String fieldName, String stringValue) {
         return new Specification<Ship>() {
             @Override
             public Predicate toPredicate(Root<Ship> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
-                return stringValue == null ? null : cb.like(root.get(fieldName), "%" + stringValue + "%");
+                if (stringValue == null)
+                    return null;
+                Predicate like = cb.like(cb.lower(root.get(fieldName)),
+                        "%" + escapeLike(stringValue.toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE);
+                Set<Long> candidates = trigramIndex.candidates(fieldName, stringValue);
+                if (candidates == null)
+                    return like;
+                if (candidates.isEmpty())
+                    return cb.disjunction();
+
+                return cb.and(root.get("id").in(candidates), like);
             }
         };
     }
 
-    private Date normalizeDateFromFrontend (Long unixDate) {
-        Calendar calendar = Calendar.getInstance();
-        Date date = new Date(unixDate);
-        calendar.setTime(date);
-        calendar.set(calendar.get(Calendar.YEAR),Calendar.JANUARY, 1, 0, 0, 0);
-        return calendar.getTime();
+    // the filter is a plain substring: a % or _ in it must not act as a wildcard
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
     }
 
+    private Date normalizeDateFromFrontend (Long unixDate) {
+        return new Date(ShipDates.startOfYear(ShipDates.yearOf(unixDate)));
+    }
 }
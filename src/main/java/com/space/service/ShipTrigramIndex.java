@@ -0,0 +1,189 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class ShipTrigramIndex implements ShipIndex {
+
+    static final int MAX_CANDIDATES = 1000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final FieldIndex names = new FieldIndex();
+    private final FieldIndex planets = new FieldIndex();
+
+    private volatile boolean ready;
+
+    @Override
+    public void clear() {
+        ready = false;
+        names.clear();
+        planets.clear();
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public void onSave(Ship ship) {
+        names.put(ship.getId(), ship.getName());
+        planets.put(ship.getId(), ship.getPlanet());
+    }
+
+    @Override
+    public void onDelete(Long id) {
+        names.remove(id);
+        planets.remove(id);
+    }
+
+    public Set<Long> candidates(String fieldName, String substring) {
+        if (!ready) {
+            return null;
+        }
+        if ("name".equals(fieldName)) {
+            return names.candidates(substring);
+        }
+        if ("planet".equals(fieldName)) {
+            return planets.candidates(substring);
+        }
+        return null;
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String value, int from) {
+        return ((long) value.charAt(from) << 32) | ((long) value.charAt(from + 1) << 16) | value.charAt(from + 2);
+    }
+
+    private static Set<Long> trigrams(String normalized) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            result.add(trigram(normalized, i));
+        }
+        return result;
+    }
+
+    private static class FieldIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, String> values = new HashMap<>();
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                values.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void put(Long id, String value) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(id);
+                if (value == null) {
+                    return;
+                }
+                String normalized = normalize(value);
+                values.put(id, normalized);
+                for (Long trigram : trigrams(normalized)) {
+                    postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeUnlocked(Long id) {
+            String previous = values.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (Long trigram : trigrams(previous)) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ids whose value may contain the substring, or null when the index cannot narrow
+         * the search (pattern shorter than a trigram, too many candidates).
+         */
+        Set<Long> candidates(String substring) {
+            if (substring.length() < 3) {
+                return null;
+            }
+            String normalized = normalize(substring);
+            if (normalized.length() < 3) {
+                return null;
+            }
+
+            lock.readLock().lock();
+            try {
+                List<Set<Long>> lists = new ArrayList<>();
+                for (Long trigram : trigrams(normalized)) {
+                    Set<Long> ids = postings.get(trigram);
+                    if (ids == null) {
+                        return Collections.emptySet();
+                    }
+                    lists.add(ids);
+                }
+                lists.sort(Comparator.comparingInt(Set::size));
+
+                Set<Long> smallest = lists.get(0);
+                if (smallest.size() > MAX_CANDIDATES * 8) {
+                    return null;
+                }
+                Set<Long> result = new HashSet<>();
+                for (Long id : smallest) {
+                    boolean inAll = true;
+                    for (int i = 1; i < lists.size() && inAll; i++) {
+                        inAll = lists.get(i).contains(id);
+                    }
+                    if (inAll) {
+                        result.add(id);
+                    }
+                }
+                return result.size() > MAX_CANDIDATES ? null : result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+CREATE TABLE ship
+(
+    id       BIGINT(20)  NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(50) NULL,
+    planet   VARCHAR(50) NULL,
+    shipType VARCHAR(9)  NULL,
+    prodDate date        NULL,
+    isUsed   BIT(1)      NULL,
+    speed    DOUBLE      NULL,
+    crewSize INT(4)      NULL,
+    rating   DOUBLE      NULL,
+    PRIMARY KEY (id)
+);
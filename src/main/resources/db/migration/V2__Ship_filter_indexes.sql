@@ -0,0 +1,6 @@
+CREATE INDEX idx_ship_type_used_rating ON ship (shipType, isUsed, rating);
+CREATE INDEX idx_ship_used_prod_date ON ship (isUsed, prodDate);
+CREATE INDEX idx_ship_prod_date_id ON ship (prodDate, id);
+CREATE INDEX idx_ship_speed_id ON ship (speed, id);
+CREATE INDEX idx_ship_rating_id ON ship (rating, id);
+CREATE INDEX idx_ship_crew_size_id ON ship (crewSize, id);
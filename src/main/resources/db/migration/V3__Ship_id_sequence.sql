@@ -0,0 +1,10 @@
+CREATE TABLE ship_id_sequence
+(
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT(20)   NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO ship_id_sequence (sequence_name, next_val)
+SELECT 'ship', COALESCE(MAX(id), 0)
+FROM ship;
@@ -0,0 +1,17 @@
+CREATE TABLE rating_job
+(
+    id             BIGINT(20) NOT NULL AUTO_INCREMENT,
+    reference_year INT        NOT NULL,
+    status         VARCHAR(9) NOT NULL,
+    chunks         INT        NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE TABLE rating_job_chunk
+(
+    id       BIGINT(20) NOT NULL AUTO_INCREMENT,
+    job_id   BIGINT(20) NOT NULL,
+    start_id BIGINT(20) NOT NULL,
+    end_id   BIGINT(20) NOT NULL,
+    updated  INT        NULL,
+    PRIMARY KEY (id)
+);
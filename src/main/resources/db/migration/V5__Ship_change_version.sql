@@ -0,0 +1,23 @@
+-- rows that predate versioning count as version 1, so a client syncing from 0 receives the whole fleet
+ALTER TABLE ship ADD COLUMN change_version BIGINT(20) NOT NULL DEFAULT 1;
+CREATE INDEX idx_ship_change_version_id ON ship (change_version, id);
+
+CREATE TABLE ship_change_version
+(
+    version   BIGINT(20) NOT NULL AUTO_INCREMENT,
+    allocated TIMESTAMP  NOT NULL,
+    PRIMARY KEY (version)
+);
+
+-- the auto-increment counter continues after the version the existing rows carry
+INSERT INTO ship_change_version (version, allocated)
+SELECT COALESCE(MAX(change_version), 1), CURRENT_TIMESTAMP
+FROM ship;
+
+CREATE TABLE ship_tombstone
+(
+    id             BIGINT(20) NOT NULL,
+    change_version BIGINT(20) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_ship_tombstone_change_version_id ON ship_tombstone (change_version, id);
@@ -1,7 +1,8 @@
 function loadContent(root, suffix, currentPage) {
 
-    let objects = JSON.parse(Get(root + "/rest/ships" + suffix).responseText);
-    let shipsCount = Get(root + "/rest/ships/count" + suffix).responseText;
+    let page = JSON.parse(Get(root + "/rest/ships/page" + suffix).responseText);
+    let objects = page.items;
+    let shipsCount = page.total;
     document.getElementById("count").innerText = "Ships found: " + shipsCount;
     let table = document.getElementById("mainTable");
     table.innerHTML = "";
@@ -70,6 +71,31 @@ function loadContent(root, suffix, currentPage) {
         table.appendChild(tr);
     }
     window.scrollTo(500, 100);
+    watchChanges(root, suffix, currentPage);
+}
+
+let changeSource = null;
+let changeSuffix = null;
+let changeReload = null;
+
+function watchChanges(root, suffix, currentPage) {
+    if (typeof EventSource === "undefined" || (changeSource !== null && changeSuffix === suffix)) {
+        return;
+    }
+    if (changeSource !== null) {
+        changeSource.close();
+    }
+    changeSuffix = suffix;
+    changeSource = new EventSource(root + "/rest/ships/events" + suffix);
+    let reload = function () {
+        clearTimeout(changeReload);
+        changeReload = setTimeout(function () {
+            loadContent(root, suffix, currentPage);
+        }, 200);
+    };
+    ["created", "updated", "deleted", "bulk"].forEach(function (type) {
+        changeSource.addEventListener(type, reload);
+    });
 }
 
 function Get(requestUrl) {
@@ -3,6 +3,7 @@ package com.space.controller;
 import com.space.config.AppConfig;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.service.ShipService;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,5 +35,6 @@ public abstract class AbstractTest {
     @Before
     public void setup() {
         mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        context.getBean(ShipService.class).reindex();
     }
 }
@@ -0,0 +1,148 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.DbExecutors;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "web.async.enabled=true")
+public class AsyncModeTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void readsRunOnReadExecutorTest() throws Exception {
+        String contentAsString = async(get("/rest/ships/5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(testsHelper.getShipInfosById(5), mapper.readValue(contentAsString, ShipInfoTest.class));
+
+        async(get("/rest/ships/0")).andExpect(status().isBadRequest());
+        async(get("/rest/ships/count")).andExpect(status().isOk());
+
+        JsonNode stats = mapper.readTree(mockMvc.perform(get("/rest/stats/executors"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(true, stats.get("async").asBoolean());
+        assertTrue("запросы на чтение должны выполняться в пуле чтения", stats.get("read").get("completed").asLong() >= 3);
+    }
+
+    //test2
+    @Test
+    public void writesRunOnWriteExecutorTest() throws Exception {
+        async(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON))
+                .andExpect(status().isOk());
+        async(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.TOO_BIG_CREW_SIZE_JSON))
+                .andExpect(status().isBadRequest());
+
+        String count = async(get("/rest/ships/count")).andReturn().getResponse().getContentAsString();
+        assertEquals(testsHelper.getAllShips().size() + 1, Long.parseLong(count));
+    }
+
+    //test3
+    @Test
+    public void fullQueueRejectsTest() throws Exception {
+        DbExecutors executors = new DbExecutors(true, 1, 1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executors.read(() -> await(release));
+            executors.read(() -> await(release));
+            CompletableFuture<Object> rejected = executors.read(() -> null);
+            try {
+                rejected.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            assertEquals(1L, ((Map<?, ?>) executors.snapshot().get("read")).get("rejected"));
+        } finally {
+            release.countDown();
+            executors.shutdown();
+        }
+    }
+
+    //test4
+    @Test
+    public void virtualThreadsTest() throws Exception {
+        boolean supported;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+        if (!supported) {
+            try {
+                new DbExecutors(true, true, 1, 1, 1, 1);
+                fail("виртуальные потоки недоступны до Java 21");
+            } catch (IllegalStateException expected) {
+                return;
+            }
+        }
+
+        DbExecutors executors = new DbExecutors(true, true, 1, 1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Thread thread = executors.read(Thread::currentThread).get();
+            assertTrue(thread.getName().startsWith("db-read-"));
+            assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+
+            executors.write(() -> await(release));
+            executors.write(() -> await(release));
+            try {
+                executors.write(() -> null).get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            assertEquals(1L, ((Map<?, ?>) executors.snapshot().get("write")).get("rejected"));
+        } finally {
+            release.countDown();
+            executors.shutdown();
+        }
+    }
+
+    private ResultActions async(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
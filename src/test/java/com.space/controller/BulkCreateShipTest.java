@@ -0,0 +1,100 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkCreateShipTest extends AbstractTest {
+
+    private static final int SHIPS = 120;
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void bulkCreateInsertsAllShipsInBatches() throws Exception {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(ships(TestsHelper.IS_USED_TRUE_JSON, SHIPS)))
+                .andExpect(status().isOk());
+
+        assertTrue("вставка пачкой не должна выполнять отдельный запрос на каждый корабль",
+                statistics.getPrepareStatementCount() < SHIPS / 4);
+
+        String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> created = mapper.readValue(contentAsString, new TypeReference<List<ShipInfoTest>>() {
+        });
+        assertEquals(SHIPS, created.size());
+        Set<Long> ids = new HashSet<>();
+        for (ShipInfoTest ship : created) {
+            assertEquals("рейтинг должен рассчитываться для каждого корабля", 6.4, ship.rating, 0);
+            ids.add(ship.id);
+        }
+        assertEquals(SHIPS, ids.size());
+
+        mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(testsHelper.getAllShips().size() + SHIPS)));
+    }
+
+    //test2
+    @Test
+    public void bulkCreateWithInvalidShipInsertsNothing() throws Exception {
+        String body = "[" + TestsHelper.IS_USED_TRUE_JSON + "," + TestsHelper.TOO_BIG_CREW_SIZE_JSON + "]";
+
+        mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(testsHelper.getAllShips().size())));
+    }
+
+    //test3
+    @Test
+    public void bulkCreateEmptyArrayTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String ships(String json, int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(json);
+        }
+        return builder.append(']').toString();
+    }
+}
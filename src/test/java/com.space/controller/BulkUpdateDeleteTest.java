@@ -0,0 +1,122 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkUpdateDeleteTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void bulkDeleteByFilterTest() throws Exception {
+        String filter = "?shipType=MERCHANT&isUsed=true&before=" + yearStart(3000);
+        long matching = count(filter);
+        assertTrue(matching > 0);
+
+        String contentAsString = mockMvc.perform(delete("/rest/ships/bulk" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(matching, mapper.readTree(contentAsString).get("affected").asLong());
+
+        assertEquals(0, count(filter));
+        assertEquals(testsHelper.getAllShips().size() - matching, count(""));
+    }
+
+    //test2
+    @Test
+    public void bulkUpdateRecomputesRatingTest() throws Exception {
+        String filter = "?shipType=MILITARY";
+        long matching = count(filter);
+
+        String contentAsString = mockMvc.perform(post("/rest/ships/bulk/update" + filter)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.5,\"isUsed\":false}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(matching, mapper.readTree(contentAsString).get("affected").asLong());
+
+        contentAsString = mockMvc.perform(get("/rest/ships" + filter + "&pageSize=100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> ships = mapper.readValue(contentAsString, new TypeReference<List<ShipInfoTest>>() {
+        });
+        assertEquals(matching, ships.size());
+        for (ShipInfoTest ship : ships) {
+            assertEquals(0.5, ship.speed, 0);
+            assertEquals(false, ship.isUsed);
+            assertEquals("рейтинг должен пересчитываться в БД так же, как при создании корабля",
+                    rating(0.5, false, ship.prodDate), ship.rating, 0);
+        }
+    }
+
+    //test3
+    @Test
+    public void bulkUpdateWithProdDateTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/bulk/update?planet=Saturn")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"prodDate\":" + yearStart(3010) + "}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?planet=Saturn&pageSize=100"))
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> ships = mapper.readValue(contentAsString, new TypeReference<List<ShipInfoTest>>() {
+        });
+        for (ShipInfoTest ship : ships) {
+            assertEquals(rating(ship.speed, ship.isUsed, yearStart(3010)), ship.rating, 0);
+        }
+    }
+
+    //test4
+    @Test
+    public void bulkOperationsWithoutFilterTest() throws Exception {
+        mockMvc.perform(delete("/rest/ships/bulk"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/rest/ships/bulk/update")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.5}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/rest/ships/bulk/update?shipType=MILITARY")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":5}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(testsHelper.getAllShips().size(), count(""));
+    }
+
+    private long count(String filter) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(contentAsString);
+    }
+
+    private static double rating(double speed, boolean isUsed, long prodDate) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(prodDate);
+        int prodYear = calendar.get(Calendar.YEAR);
+        return Math.round((80.0 * speed * (isUsed ? 0.5 : 1) / (3019 - prodYear + 1.0)) * 100.0) / 100.0;
+    }
+
+    private static long yearStart(int year) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        return calendar.getTimeInMillis();
+    }
+}
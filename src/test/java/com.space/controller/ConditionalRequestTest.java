@@ -0,0 +1,122 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalRequestTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void unchangedListIsNotModifiedWithoutQueryTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships?pageSize=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull("список должен возвращать ETag", etag);
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            long statements = statistics.getPrepareStatementCount();
+            mockMvc.perform(get("/rest/ships?pageSize=5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+            mockMvc.perform(get("/rest/ships/count").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+            assertEquals("ответ 304 не должен обращаться к БД", statements, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    //test2
+    @Test
+    public void writeChangesListTagTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON))
+                .andExpect(status().isOk());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/count").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertNotEquals("после записи ETag должен измениться", etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(testsHelper.getAllShips().size() + 1, Long.parseLong(response.getContentAsString()));
+    }
+
+    //test3
+    @Test
+    public void shipTagAndModifiedSinceTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(etag);
+        assertNotNull(lastModified);
+
+        mockMvc.perform(get("/rest/ships/5").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/rest/ships/6").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/5").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/rest/ships/5").header(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:00:00 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    //test4
+    @Test
+    public void ifMatchUpdateTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships/5"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newTag = mockMvc.perform(post("/rest/ships/5")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("после изменения у корабля должен быть новый ETag", etag, newTag);
+
+        mockMvc.perform(post("/rest/ships/5")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":200}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(post("/rest/ships/5")
+                .header(HttpHeaders.IF_MATCH, "W/" + newTag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":200}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(post("/rest/ships/1000")
+                .header(HttpHeaders.IF_MATCH, newTag)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":200}"))
+                .andExpect(status().isNotFound());
+
+        String body = mockMvc.perform(get("/rest/ships/5"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(100, mapper.readTree(body).get("crewSize").asInt());
+    }
+}
@@ -0,0 +1,59 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportShipTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void exportNdjsonTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertTrue(response.getContentType().startsWith("application/x-ndjson"));
+        List<ShipInfoTest> actual = new ArrayList<>();
+        for (String line : response.getContentAsString().split("\n")) {
+            actual.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+        assertEquals("Экспорт должен вернуть все корабли по одному в строке", testsHelper.getAllShips(), actual);
+    }
+
+    //test2
+    @Test
+    public void exportCsvWithFilterTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/export?format=csv&shipType=MILITARY&order=SPEED"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        String[] lines = response.getContentAsString().split("\n");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips());
+
+        assertEquals(ShipCsv.HEADER, lines[0]);
+        assertEquals(expected.size() + 1, lines.length);
+        double lastSpeed = 0;
+        for (int i = 1; i < lines.length; i++) {
+            String[] columns = lines[i].split(",");
+            assertEquals("MILITARY", columns[3]);
+            double speed = Double.parseDouble(columns[6]);
+            assertTrue(speed >= lastSpeed);
+            lastSpeed = speed;
+        }
+    }
+}
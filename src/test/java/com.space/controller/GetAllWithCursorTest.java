@@ -0,0 +1,92 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipOrder;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetAllWithCursorTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void cursorWalkMatchesFullOrderForEveryShipOrder() throws Exception {
+        for (ShipOrder order : ShipOrder.values()) {
+            List<ShipInfoTest> actual = walk("/rest/ships?pageSize=7&order=" + order);
+            List<ShipInfoTest> expected = sortByOrderThenId(order, testsHelper.getAllShips());
+
+            assertEquals("Обход по курсору GET /rest/ships с order=" + order + " возвращает не правильный результат.", expected, actual);
+        }
+    }
+
+    //test2
+    @Test
+    public void cursorWalkWithFilters() throws Exception {
+        List<ShipInfoTest> actual = walk("/rest/ships?pageSize=2&order=RATING&shipType=MILITARY&isUsed=false");
+        List<ShipInfoTest> expected = sortByOrderThenId(ShipOrder.RATING,
+                testsHelper.getShipInfosByIsUsed(false,
+                        testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                                testsHelper.getAllShips())));
+
+        assertEquals("Обход по курсору GET /rest/ships с фильтрами возвращает не правильный результат.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void cursorFromAnotherOrderIsRejected() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?pageSize=3&order=SPEED&cursor=")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        mockMvc.perform(get("/rest/ships?pageSize=3&order=RATING&cursor=" + response.getHeader(RestShipController.NEXT_CURSOR_HEADER))
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ShipInfoTest> sortByOrderThenId(ShipOrder order, List<ShipInfoTest> ships) {
+        Comparator<ShipInfoTest> comparator;
+        if (order == ShipOrder.DATE) {
+            comparator = Comparator.comparing(s -> s.prodDate);
+        } else if (order == ShipOrder.SPEED) {
+            comparator = Comparator.comparing(s -> s.speed);
+        } else if (order == ShipOrder.RATING) {
+            comparator = Comparator.comparing(s -> s.rating);
+        } else {
+            comparator = Comparator.comparing(s -> s.id);
+        }
+        ships.sort(comparator.thenComparing(s -> s.id));
+        return ships;
+    }
+
+    private List<ShipInfoTest> walk(String url) throws Exception {
+        List<ShipInfoTest> result = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            MockHttpServletResponse response = mockMvc.perform(get(url + "&cursor=" + cursor)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            result.addAll(mapper.readValue(response.getContentAsString(), typeReference));
+            cursor = response.getHeader(RestShipController.NEXT_CURSOR_HEADER);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetChangesTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void fullSyncFromZeroTest() throws Exception {
+        JsonNode delta = changes("?since=0&limit=10000");
+
+        assertEquals("с нулевой версии должны прийти все корабли", testsHelper.getAllShips().size(), delta.get("upserted").size());
+        assertEquals(0, delta.get("deleted").size());
+        assertFalse(delta.get("more").asBoolean());
+        assertTrue(delta.get("upserted").get(0).get("changeVersion") == null);
+
+        JsonNode empty = changes("?since=" + delta.get("version").asLong());
+        assertEquals(0, empty.get("upserted").size());
+        assertEquals(delta.get("version").asLong(), empty.get("version").asLong());
+    }
+
+    //test2
+    @Test
+    public void onlyChangedShipsAndDeletedIdsTest() throws Exception {
+        long version = changes("?since=0&limit=10000").get("version").asLong();
+
+        String created = mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long createdId = mapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/rest/ships/5")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/7"))
+                .andExpect(status().isOk());
+
+        JsonNode delta = changes("?since=" + version);
+        Set<Long> upserted = new HashSet<>();
+        for (JsonNode ship : delta.get("upserted")) {
+            upserted.add(ship.get("id").asLong());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(createdId, 5L)), upserted);
+        assertEquals(1, delta.get("deleted").size());
+        assertEquals(7L, delta.get("deleted").get(0).asLong());
+        assertEquals(version + 3, delta.get("version").asLong());
+    }
+
+    //test3
+    @Test
+    public void pagingThroughOneBulkVersionTest() throws Exception {
+        long version = changes("?since=0&limit=10000").get("version").asLong();
+        mockMvc.perform(post("/rest/ships/bulk/update?planet=a")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk());
+        long matching = Long.parseLong(mockMvc.perform(get("/rest/ships/count?planet=a"))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(delete("/rest/ships/bulk?planet=e&isUsed=false"))
+                .andExpect(status().isOk());
+
+        Set<Long> upserted = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        String query = "?since=" + version + "&limit=3";
+        JsonNode delta;
+        do {
+            delta = changes(query);
+            delta.get("upserted").forEach(ship -> assertTrue("корабль не должен повторяться", upserted.add(ship.get("id").asLong())));
+            delta.get("deleted").forEach(id -> assertTrue(deleted.add(id.asLong())));
+            query = "?since=" + delta.get("version").asLong() + "&limit=3"
+                    + (delta.get("more").asBoolean() ? "&afterId=" + delta.get("afterId").asLong() : "");
+        } while (delta.get("more").asBoolean());
+
+        upserted.removeAll(deleted);
+        assertTrue(deleted.size() > 0);
+        assertTrue(upserted.size() <= matching);
+        assertEquals(version + 2, delta.get("version").asLong());
+    }
+
+    //test4
+    @Test
+    public void invalidParametersTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/changes?since=-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/changes?limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/changes?limit=10001")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode changes(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/changes" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+}
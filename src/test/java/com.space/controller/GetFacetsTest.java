@@ -0,0 +1,136 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetFacetsTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    // one scan with a conditional sum per count and one grouped query for the top planets, and no ship is read as a row
+    //test1
+    @Test
+    public void facetsCountedInOneScanTest() throws Exception {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        JsonNode facets = facets("");
+
+        assertTrue("все фасеты кроме планет должны считаться одним запросом", statistics.getPrepareStatementCount() <= 2);
+        assertEquals(0, statistics.getEntityLoadCount());
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        assertEquals(ships.size(), facets.get("total").asLong());
+        for (ShipType shipType : ShipType.values()) {
+            assertEquals(testsHelper.getShipInfosByShipType(shipType, ships).size(), facets.get("shipType").get(shipType.name()).asLong());
+        }
+        assertEquals(testsHelper.getShipInfosByIsUsed(true, ships).size(), facets.get("isUsed").get("true").asLong());
+        assertEquals(ships.size(), sum(facets.get("speed")));
+        assertEquals(ships.size(), sum(facets.get("crewSize")));
+        assertEquals(ships.size(), sum(facets.get("rating")));
+        assertEquals(ships.size(), sum(facets.get("year")));
+        assertTrue(facets.get("planets").size() <= 10);
+
+        JsonNode speed = facets.get("speed");
+        for (int i = 0; i < speed.size(); i++) {
+            double from = speed.get(i).get("from").asDouble();
+            long expected = ships.stream().filter(ship -> ship.speed >= from - 1e-9 && ship.speed < from + 0.1 - 1e-9).count();
+            assertEquals("корабли должны попадать в свой интервал скорости", expected, speed.get(i).get("count").asLong());
+        }
+        JsonNode year = facets.get("year");
+        for (int i = 0; i < year.size(); i++) {
+            int from = year.get(i).get("from").asInt();
+            long expected = ships.stream().filter(ship -> yearOf(ship) >= from && yearOf(ship) < from + 10).count();
+            assertEquals("корабли должны попадать в свой интервал годов", expected, year.get(i).get("count").asLong());
+        }
+    }
+
+    //test2
+    @Test
+    public void facetIgnoresItsOwnFilterTest() throws Exception {
+        JsonNode facets = facets("?shipType=MILITARY&isUsed=true");
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        List<ShipInfoTest> used = testsHelper.getShipInfosByIsUsed(true, ships);
+        List<ShipInfoTest> military = testsHelper.getShipInfosByShipType(ShipType.MILITARY, ships);
+
+        assertEquals(testsHelper.getShipInfosByShipType(ShipType.MILITARY, used).size(), facets.get("total").asLong());
+        for (ShipType shipType : ShipType.values()) {
+            assertEquals("счётчик типа должен показывать, сколько кораблей найдётся при выборе этого типа",
+                    testsHelper.getShipInfosByShipType(shipType, used).size(), facets.get("shipType").get(shipType.name()).asLong());
+        }
+        assertEquals(testsHelper.getShipInfosByIsUsed(true, military).size(), facets.get("isUsed").get("true").asLong());
+        assertEquals(testsHelper.getShipInfosByIsUsed(false, military).size(), facets.get("isUsed").get("false").asLong());
+        assertEquals(facets.get("total").asLong(), sum(facets.get("speed")));
+    }
+
+    //test3
+    @Test
+    public void facetTotalMatchesCountTest() throws Exception {
+        String filter = "?planet=e&minSpeed=0.3&maxCrewSize=3000&after=" + 32535215999000L;
+        String count = mockMvc.perform(get("/rest/ships/count" + filter))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode facets = facets(filter + "&planets=2");
+
+        assertEquals(Long.parseLong(count), facets.get("total").asLong());
+        assertEquals(2, facets.get("planets").size());
+        assertTrue(facets.get("planets").get(0).get("count").asLong() >= facets.get("planets").get(1).get("count").asLong());
+    }
+
+    // the planet filter matches without regard to case, as the list and count endpoints do
+    //test4
+    @Test
+    public void facetPlanetFilterIgnoresCaseTest() throws Exception {
+        JsonNode facets = facets("?planet=EARTH");
+        List<ShipInfoTest> onEarth = testsHelper.getAllShips().stream()
+                .filter(ship -> ship.planet.toLowerCase(Locale.ROOT).contains("earth"))
+                .collect(Collectors.toList());
+
+        assertTrue(onEarth.size() > 0);
+        assertEquals(onEarth.size(), facets.get("total").asLong());
+        for (ShipType shipType : ShipType.values()) {
+            assertEquals(testsHelper.getShipInfosByShipType(shipType, onEarth).size(), facets.get("shipType").get(shipType.name()).asLong());
+        }
+        assertEquals(onEarth.size(), sum(facets.get("year")));
+    }
+
+    private JsonNode facets(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/facets" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+
+    private static int yearOf(ShipInfoTest ship) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(ship.prodDate);
+        return calendar.get(Calendar.YEAR);
+    }
+
+    private static long sum(JsonNode buckets) {
+        long sum = 0;
+        for (JsonNode bucket : buckets) {
+            sum += bucket.get("count").asLong();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,62 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetPageTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getPageReturnsItemsAndTotal() throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/page?shipType=TRANSPORT&pageNumber=1&pageSize=4")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode page = mapper.readTree(content);
+        List<ShipInfoTest> filtered = testsHelper.getShipInfosByShipType(ShipType.TRANSPORT, testsHelper.getAllShips());
+        List<ShipInfoTest> actual = mapper.readValue(page.get("items").traverse(), typeReference);
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page.",
+                testsHelper.getShipInfosByPage(1, 4, filtered), actual);
+        assertEquals("Возвращается не правильный total при запросе GET /rest/ships/page.",
+                (long) filtered.size(), page.get("total").asLong());
+        assertEquals("Возвращается не правильный pageNumber при запросе GET /rest/ships/page.",
+                1, page.get("pageNumber").asInt());
+    }
+
+    //test2
+    @Test
+    public void getPageWithoutTotal() throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/page?isUsed=true&pageSize=5&withTotal=false")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode page = mapper.readTree(content);
+        List<ShipInfoTest> actual = mapper.readValue(page.get("items").traverse(), typeReference);
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page с withTotal=false.",
+                testsHelper.getShipInfosByPage(0, 5, testsHelper.getShipInfosByIsUsed(true, testsHelper.getAllShips())), actual);
+        assertTrue("При withTotal=false поле total должно быть пустым.", page.get("total").isNull());
+        assertTrue("При withTotal=false должен возвращаться признак следующей страницы.", page.get("hasNext").asBoolean());
+    }
+}
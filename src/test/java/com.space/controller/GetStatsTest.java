@@ -0,0 +1,74 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetStatsTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void statsByShipTypeTest() throws Exception {
+        JsonNode stats = stats("?groupBy=ship_type");
+
+        assertEquals(ShipType.values().length, stats.size());
+        assertEquals("MERCHANT", stats.get(0).get("group").asText());
+        for (JsonNode group : stats) {
+            List<ShipInfoTest> ships = testsHelper.getShipInfosByShipType(
+                    ShipType.valueOf(group.get("group").asText()), testsHelper.getAllShips());
+            assertEquals("количество кораблей в группе должно совпадать", ships.size(), group.get("count").asLong());
+            assertEquals(ships.stream().mapToDouble(ship -> ship.speed).max().getAsDouble(), group.get("maxSpeed").asDouble(), 0);
+            assertEquals(ships.stream().mapToInt(ship -> ship.crewSize).min().getAsInt(), group.get("minCrewSize").asInt());
+            assertEquals(ships.stream().mapToDouble(ship -> ship.rating).average().getAsDouble(), group.get("avgRating").asDouble(), 1e-9);
+        }
+    }
+
+    //test2
+    @Test
+    public void statsWithFilterTest() throws Exception {
+        JsonNode stats = stats("?groupBy=PLANET&isUsed=true&shipType=MILITARY");
+        List<ShipInfoTest> ships = testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getShipInfosByIsUsed(true, testsHelper.getAllShips()));
+
+        long total = 0;
+        String lastPlanet = "";
+        for (JsonNode group : stats) {
+            String planet = group.get("group").asText();
+            assertEquals(ships.stream().filter(ship -> ship.planet.equals(planet)).count(), group.get("count").asLong());
+            assertEquals("группы должны быть упорядочены", true, planet.compareTo(lastPlanet) > 0);
+            lastPlanet = planet;
+            total += group.get("count").asLong();
+        }
+        assertEquals(ships.size(), total);
+    }
+
+    //test3
+    @Test
+    public void statsByYearTest() throws Exception {
+        JsonNode stats = stats("?groupBy=YEAR&minSpeed=0.5");
+        long total = 0;
+        for (JsonNode group : stats) {
+            total += group.get("count").asLong();
+        }
+        assertEquals(testsHelper.getShipInfosByMinSpeed(0.5, testsHelper.getAllShips()).size(), total);
+    }
+
+    private JsonNode stats(String query) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/stats" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+}
@@ -0,0 +1,94 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportShipTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void importNdjsonTest() throws Exception {
+        String body = TestsHelper.IS_USED_TRUE_JSON + "\n"
+                + "{not json\n"
+                + "\n"
+                + TestsHelper.TOO_BIG_CREW_SIZE_JSON + "\n"
+                + TestsHelper.NO_IS_USED_JSON + "\n";
+
+        JsonNode result = importShips("ndjson", "application/x-ndjson", body);
+
+        assertEquals(2, result.get("accepted").asLong());
+        assertEquals(2, result.get("rejected").asLong());
+        assertEquals("номер строки должен указывать на отклонённую запись", 2, result.get("errors").get(0).get("line").asLong());
+        assertEquals(4, result.get("errors").get(1).get("line").asLong());
+        assertEquals("invalid crewSize", result.get("errors").get(1).get("reason").asText());
+        assertEquals(testsHelper.getAllShips().size() + 2, count());
+    }
+
+    //test2
+    @Test
+    public void importCsvTest() throws Exception {
+        String body = "name,planet,shipType,prodDate,isUsed,speed,crewSize\n"
+                + "\"Star, \"\"Hope\"\"\",Earth,MERCHANT,32998274577071,true,0.8,14\n"
+                + "Broken,Mars,MERCHANT,32998274577071,false,fast,14\n"
+                + "NoCrew,Mars,MILITARY,32998274577071,false,0.5,\n"
+                + "Plain,Venus,TRANSPORT,32998274577071,,0.5,10\r\n";
+
+        JsonNode result = importShips("csv", "text/csv", body);
+
+        assertEquals(2, result.get("accepted").asLong());
+        assertEquals(2, result.get("rejected").asLong());
+        assertEquals("invalid speed: fast", result.get("errors").get(0).get("reason").asText());
+        assertEquals(3, result.get("errors").get(0).get("line").asLong());
+        assertEquals("missing crewSize", result.get("errors").get(1).get("reason").asText());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?name=Hope"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode ship = mapper.readTree(contentAsString).get(0);
+        assertEquals("Star, \"Hope\"", ship.get("name").asText());
+        assertEquals(6.4, ship.get("rating").asDouble(), 0);
+    }
+
+    //test3
+    @Test
+    public void exportedCsvCanBeImportedTest() throws Exception {
+        String exported = mockMvc.perform(get("/rest/ships/export?format=csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode result = importShips("csv", "text/csv", exported);
+
+        assertEquals(testsHelper.getAllShips().size(), result.get("accepted").asLong());
+        assertEquals(0, result.get("rejected").asLong());
+        assertEquals(testsHelper.getAllShips().size() * 2, count());
+    }
+
+    private JsonNode importShips(String format, String contentType, String body) throws Exception {
+        String contentAsString = mockMvc.perform(post("/rest/ships/import?format=" + format)
+                .contentType(MediaType.parseMediaType(contentType))
+                .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+
+    private long count() throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(contentAsString);
+    }
+}
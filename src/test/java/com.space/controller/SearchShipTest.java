@@ -0,0 +1,107 @@
+package com.space.controller;
+
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.service.ShipTrigramIndex;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SearchShipTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+
+    // a plain substring without regard to case, as MySQL's default collation compares; % and _ are literal
+    //test1
+    @Test
+    public void substringSearchMatchesLikeSemantics() throws Exception {
+        String[] names = {"Star", "star", "ion", "Excal", "xcel", "ar", "Orion", "orion", "Zzz", "%", "_", "r%", "r_"};
+        for (String name : names) {
+            assertEquals("Не правильный результат поиска GET /rest/ships/count?name=" + name,
+                    expected(name, ship -> ship.name), count("name", name));
+        }
+        String[] planets = {"Sat", "urn", "Mer", "us", "Earthling", "EARTH", "_"};
+        for (String planet : planets) {
+            assertEquals("Не правильный результат поиска GET /rest/ships/count?planet=" + planet,
+                    expected(planet, ship -> ship.planet), count("planet", planet));
+        }
+    }
+
+    //test2
+    @Test
+    public void substringSearchFollowsWrites() throws Exception {
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Zephyr Nomad\", \"planet\": \"Kepler Prime\", \"shipType\": \"MILITARY\"," +
+                        "\"prodDate\": 32998274577071, \"speed\": 0.5, \"crewSize\": 10}"))
+                .andExpect(status().isOk());
+        assertEquals("Созданный корабль должен находиться поиском по имени", 1L, count("name=Nomad"));
+        assertEquals("Созданный корабль должен находиться поиском по планете", 1L, count("planet=Kepler"));
+
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Nomad Two\"}"))
+                .andExpect(status().isOk());
+        assertEquals("Обновлённое имя должно находиться поиском", 2L, count("name=Nomad"));
+        assertEquals("Старое имя не должно находиться поиском", 0L, count("name=Orion"));
+
+        mockMvc.perform(delete("/rest/ships/1"))
+                .andExpect(status().isOk());
+        assertEquals("Удалённый корабль не должен находиться поиском", 1L, count("name=Nomad"));
+    }
+
+    // % and _ are ordinary characters of the name, so the trigram index narrows such a search as well
+    //test3
+    @Test
+    public void wildcardCharactersAreSearchedThroughIndex() throws Exception {
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Cargo_100% Mk\", \"planet\": \"Kepler Prime\", \"shipType\": \"MERCHANT\"," +
+                        "\"prodDate\": 32998274577071, \"speed\": 0.5, \"crewSize\": 10}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Cargox1000 Mk\", \"planet\": \"Kepler Prime\", \"shipType\": \"MERCHANT\"," +
+                        "\"prodDate\": 32998274577071, \"speed\": 0.5, \"crewSize\": 10}"))
+                .andExpect(status().isOk());
+
+        ShipTrigramIndex trigramIndex = context.getBean(ShipTrigramIndex.class);
+        Set<Long> candidates = trigramIndex.candidates("name", "o_100%");
+        assertTrue("Поиск с % и _ должен сужаться индексом", candidates != null && candidates.size() == 1);
+        assertEquals("Символы % и _ должны искаться буквально", 1L, count("name", "o_100%"));
+        assertEquals("Символ _ не должен совпадать с любым символом", 0L, count("name", "o_1000"));
+    }
+
+    private long expected(String part, Function<ShipInfoTest, String> field) {
+        String folded = part.toLowerCase(Locale.ROOT);
+        return testsHelper.getAllShips().stream()
+                .filter(ship -> field.apply(ship).toLowerCase(Locale.ROOT).contains(folded))
+                .count();
+    }
+
+    private long count(String query) throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/count?" + query)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(content);
+    }
+
+    private long count(String field, String value) throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/count").param(field, value)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(content);
+    }
+}
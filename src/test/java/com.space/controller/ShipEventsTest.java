@@ -0,0 +1,133 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipEventsTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void filteredChangesAreStreamedTest() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/rest/ships/events?shipType=MILITARY&planet=Earth"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String created = mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long createdId = mapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON.replace("MILITARY", "TRANSPORT")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/" + createdId)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/" + createdId))
+                .andExpect(status().isOk());
+
+        List<String[]> events = awaitEvents(stream.getResponse(), 3);
+        assertEquals("события по чужому фильтру не должны приходить", 3, events.size());
+
+        assertEquals("created", events.get(0)[0]);
+        JsonNode first = mapper.readTree(events.get(0)[1]);
+        assertEquals(createdId, first.get("id").asLong());
+        assertEquals("MILITARY", first.get("ship").get("shipType").asText());
+
+        assertEquals("updated", events.get(1)[0]);
+        assertEquals(100, mapper.readTree(events.get(1)[1]).get("ship").get("crewSize").asInt());
+
+        assertEquals("deleted", events.get(2)[0]);
+        JsonNode deleted = mapper.readTree(events.get(2)[1]);
+        assertEquals(createdId, deleted.get("id").asLong());
+        assertTrue(deleted.get("sequence").asLong() > first.get("sequence").asLong());
+    }
+
+    //test2
+    @Test
+    public void changeFeedStatsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/events")).andExpect(request().asyncStarted());
+
+        String contentAsString = mockMvc.perform(get("/rest/stats/changes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(mapper.readTree(contentAsString).get("subscribers").asInt() >= 1);
+    }
+
+    // the planet filter ignores case like the database does, and moving the ship away ends it for the subscriber
+    //test3
+    @Test
+    public void shipLeavingFilterTest() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/rest/ships/events?planet=earth"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String created = mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.IS_USED_TRUE_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long createdId = mapper.readTree(created).get("id").asLong();
+        mockMvc.perform(post("/rest/ships/" + createdId)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\":\"Mars\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/" + createdId)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\":100}"))
+                .andExpect(status().isOk());
+
+        List<String[]> events = awaitEvents(stream.getResponse(), 2);
+        assertEquals(2, events.size());
+        assertEquals("created", events.get(0)[0]);
+        assertEquals("left", events.get(1)[0]);
+        JsonNode left = mapper.readTree(events.get(1)[1]);
+        assertEquals(createdId, left.get("id").asLong());
+        assertTrue(left.get("ship").isNull());
+    }
+
+    private static List<String[]> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        List<String[]> events = new ArrayList<>();
+        for (int attempt = 0; attempt < 100; attempt++) {
+            events.clear();
+            String name = null;
+            // an event is written in parts, so only what precedes the last blank line is complete
+            String content = response.getContentAsString();
+            for (String line : content.substring(0, content.lastIndexOf("\n\n") + 1).split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:") && name != null) {
+                    events.add(new String[]{name, line.substring("data:".length())});
+                    name = null;
+                }
+            }
+            if (events.size() >= count) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        Thread.sleep(100);
+        return events;
+    }
+}
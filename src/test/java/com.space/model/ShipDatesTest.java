@@ -0,0 +1,78 @@
+package com.space.model;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipDatesTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    public void yearMatchesCalendarForEveryHourOfProductionRange() {
+        Calendar calendar = Calendar.getInstance();
+        long from = startOfYear(2799);
+        long to = startOfYear(3021);
+        for (long millis = from; millis < to; millis += HOUR) {
+            calendar.setTimeInMillis(millis);
+            assertEquals("год должен совпадать с Calendar для " + millis, calendar.get(Calendar.YEAR), ShipDates.yearOf(millis));
+        }
+    }
+
+    @Test
+    public void yearBoundariesMatchCalendar() {
+        for (int year = 1600; year <= 3100; year++) {
+            long start = startOfYear(year);
+            assertEquals(start, ShipDates.startOfYear(year));
+            assertEquals(year, ShipDates.yearOf(start));
+            assertEquals(year - 1, ShipDates.yearOf(start - 1));
+            assertEquals(start, ShipDates.toDateColumn(new Date(start + 13 * HOUR)));
+        }
+    }
+
+    // midnight falls into a gap in Sao Paulo, occurs twice in Havana, and Apia skipped 2011-12-30 entirely
+    @Test
+    public void dayBoundariesMatchJavaTimeAcrossOffsetChanges() {
+        String[] zones = {"America/Sao_Paulo", "America/Havana", "Pacific/Apia", "Europe/Berlin", "Asia/Tehran", "UTC"};
+        for (String zoneId : zones) {
+            ZoneId zone = ZoneId.of(zoneId);
+            ZoneRules rules = zone.getRules();
+            for (LocalDate day = LocalDate.of(1900, 1, 1); day.getYear() < 2100; day = day.plusDays(1)) {
+                long start = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                assertEquals("начало дня " + day + " в " + zoneId, start, ShipDates.startOfDay(day.toEpochDay(), rules));
+                assertEquals("день " + day + " в " + zoneId, start, ShipDates.toDateColumn(start + 12 * HOUR, rules));
+                assertEquals("год " + day + " в " + zoneId, day.getYear(), ShipDates.yearOf(start, rules));
+            }
+        }
+    }
+
+    @Test
+    public void ratingIsIdenticalToCalendarBasedRating() {
+        Calendar calendar = Calendar.getInstance();
+        for (int year = 2800; year <= 3019; year++) {
+            long prodDate = startOfYear(year) + 200 * 24 * HOUR;
+            calendar.setTimeInMillis(prodDate);
+            for (int speed = 1; speed <= 99; speed++) {
+                for (boolean isUsed : new boolean[]{true, false}) {
+                    Ship ship = new Ship(null, "name", "planet", ShipType.MERCHANT, new Date(prodDate), isUsed, speed / 100.0, 1);
+                    double expected = Math.round((80.0 * (speed / 100.0) * (isUsed ? 0.5 : 1)
+                            / (Ship.CURRENT_YEAR - calendar.get(Calendar.YEAR) + 1.0)) * 100.0) / 100.0;
+                    assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(ship.calculateRating()));
+                }
+            }
+        }
+    }
+
+    private static long startOfYear(int year) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        return calendar.getTimeInMillis();
+    }
+}
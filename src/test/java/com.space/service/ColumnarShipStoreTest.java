@@ -0,0 +1,180 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipOrder;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@TestPropertySource(properties = "ship.query.engine=memory")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ColumnarShipStoreTest {
+
+    private static final String[] NAMES = {"a", "er", "Star", "or", "X", "Nomad"};
+    private static final String[] PLANETS = {"ar", "us", "Earth", "n", "Kepler"};
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ColumnarShipStore columnarStore;
+
+    private final Random random = new Random(3019);
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    @Test
+    public void memoryEngineReturnsSamePagesAsDatabase() {
+        assertTrue(columnarStore.isActive());
+
+        Ship ship = new Ship(null, "Zephyr Nomad", "Kepler", ShipType.MILITARY, new Date(32998274577071L), false, 0.5, 10);
+        ship.setRating(ship.calculateRating());
+        shipService.saveShip(ship);
+        shipService.deleteShip(3L);
+
+        for (int i = 0; i < 300; i++) {
+            ShipFilter filter = randomFilter();
+            ShipOrder order = ShipOrder.values()[random.nextInt(ShipOrder.values().length)];
+            Sort sort = order == ShipOrder.ID
+                    ? Sort.by(order.getFieldName())
+                    : Sort.by(order.getFieldName()).and(Sort.by("id"));
+            Pageable pageable = PageRequest.of(random.nextInt(4), 1 + random.nextInt(7), sort);
+
+            Page<Ship> fromDatabase = shipService.getShipsPage(shipService.filterBy(filter), pageable);
+            Page<Ship> fromMemory = shipService.getShipsPage(filter, pageable);
+
+            assertEquals(fromDatabase.getTotalElements(), fromMemory.getTotalElements());
+            assertEquals(describe(fromDatabase.getContent()), describe(fromMemory.getContent()));
+            assertEquals(fromDatabase.getTotalElements(), shipService.countShips(filter));
+        }
+    }
+
+    // the filters are plain substrings in both engines: LIKE wildcards are literal and case does not matter
+    @Test
+    public void memoryEngineMatchesWildcardsAndCaseLikeDatabase() {
+        String[][] ships = {{"100% Pure", "Mars_2"}, {"Under_Score", "MarsX2"}, {"UnderXScore", "mars_2"},
+                {"MiXeD Case!", "Alpha"}};
+        for (String[] fields : ships) {
+            Ship ship = new Ship(null, fields[0], fields[1], ShipType.MERCHANT, new Date(yearStart(3015)), true, 0.5, 10);
+            ship.setRating(ship.calculateRating());
+            shipService.saveShip(ship);
+        }
+
+        String[] names = {"%", "_", "r_s", "0% p", "mixed", "MIXED CASE", "e!", "!", "\\"};
+        String[] planets = {"s_2", "S_2", "_", "%"};
+        Pageable pageable = PageRequest.of(0, 50, Sort.by("id"));
+        for (String name : names) {
+            ShipFilter filter = new ShipFilter();
+            filter.setName(name);
+            assertSameShips(filter, pageable);
+        }
+        for (String planet : planets) {
+            ShipFilter filter = new ShipFilter();
+            filter.setPlanet(planet);
+            assertSameShips(filter, pageable);
+        }
+
+        ShipFilter underscore = new ShipFilter();
+        underscore.setName("r_s");
+        assertEquals("подчёркивание не должно быть шаблоном LIKE", 1, shipService.countShips(underscore));
+        ShipFilter mixed = new ShipFilter();
+        mixed.setName("mixed");
+        assertEquals("поиск не должен зависеть от регистра", 1, shipService.countShips(mixed));
+    }
+
+    private void assertSameShips(ShipFilter filter, Pageable pageable) {
+        Page<Ship> fromDatabase = shipService.getShipsPage(shipService.filterBy(filter), pageable);
+        Page<Ship> fromMemory = shipService.getShipsPage(filter, pageable);
+        assertEquals(describe(fromDatabase.getContent()), describe(fromMemory.getContent()));
+        for (Ship ship : fromDatabase.getContent()) {
+            assertTrue(filter.matches(ship));
+        }
+    }
+
+    private ShipFilter randomFilter() {
+        ShipFilter filter = new ShipFilter();
+        if (random.nextInt(4) == 0) {
+            filter.setName(NAMES[random.nextInt(NAMES.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            filter.setPlanet(PLANETS[random.nextInt(PLANETS.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setIsUsed(random.nextBoolean());
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setAfter(yearStart(2985 + random.nextInt(35)) + random.nextInt(2));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setBefore(yearStart(2990 + random.nextInt(30)) - random.nextInt(2));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMinSpeed(random.nextInt(100) / 100.0);
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMaxSpeed(random.nextInt(100) / 100.0);
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMinCrewSize(random.nextInt(5000));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMaxCrewSize(random.nextInt(5000));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMinRating(random.nextInt(800) / 100.0);
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMaxRating(random.nextInt(2500) / 100.0);
+        }
+        return filter;
+    }
+
+    private static long yearStart(int year) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    private static List<String> describe(List<Ship> ships) {
+        List<String> result = new ArrayList<>();
+        for (Ship ship : ships) {
+            result.add(ship.getId() + "|" + ship.getName() + "|" + ship.getPlanet() + "|" + ship.getShipType() + "|"
+                    + ship.getProdDate().getTime() + "|" + ship.isUsed() + "|" + ship.getSpeed() + "|"
+                    + ship.getCrewSize() + "|" + ship.getRating());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class CountShipsTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void countDoesNotLoadEntities() {
+        Specification<Ship> specification = Specification.where(shipService.filterByShipType(ShipType.MERCHANT))
+                .and(shipService.filterByUsage(true));
+
+        long count = shipService.countShips(specification);
+
+        assertEquals(8, count);
+        assertEquals("count must not materialize Ship entities", 0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
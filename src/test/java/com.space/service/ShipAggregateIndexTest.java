@@ -0,0 +1,97 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipAggregateIndexTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipAggregateIndex aggregateIndex;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    @Test
+    public void indexMatchesGroupByAfterWrites() {
+        assertMatchesDatabase();
+
+        Ship ship = new Ship(null, "Aggregate", "Earth", ShipType.TRANSPORT, new Date(32998274577071L), true, 0.99, 9999);
+        ship.setRating(ship.calculateRating());
+        shipService.saveShip(ship);
+        assertMatchesDatabase();
+
+        Ship changes = new Ship();
+        changes.setShipType(ShipType.MILITARY);
+        changes.setSpeed(0.01);
+        shipService.updateShip(ship.getId(), changes);
+        assertMatchesDatabase();
+
+        shipService.deleteShip(3L);
+        shipService.deleteShip(ship.getId());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    public void unfilteredGroupingsAreServedFromIndex() {
+        ShipFilter filter = new ShipFilter();
+        assertTrue(aggregateIndex.supports(filter, ShipGrouping.SHIP_TYPE));
+        assertTrue(!aggregateIndex.supports(filter, ShipGrouping.PLANET));
+        filter.setShipType(ShipType.MERCHANT);
+        assertTrue(!aggregateIndex.supports(filter, ShipGrouping.SHIP_TYPE));
+    }
+
+    private void assertMatchesDatabase() {
+        for (ShipGrouping grouping : new ShipGrouping[]{ShipGrouping.SHIP_TYPE, ShipGrouping.IS_USED, ShipGrouping.YEAR}) {
+            List<ShipGroupStats> expected = shipRepository.aggregate(null, grouping);
+            List<ShipGroupStats> actual = aggregateIndex.aggregate(grouping);
+            assertEquals(grouping.name(), expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                ShipGroupStats e = expected.get(i);
+                ShipGroupStats a = actual.get(i);
+                assertEquals(e.getGroup(), a.getGroup());
+                assertEquals(e.getCount(), a.getCount());
+                assertEquals(e.getMinSpeed(), a.getMinSpeed());
+                assertEquals(e.getMaxSpeed(), a.getMaxSpeed());
+                assertEquals(e.getAvgSpeed(), a.getAvgSpeed(), 1e-9);
+                assertEquals(e.getMinRating(), a.getMinRating());
+                assertEquals(e.getMaxRating(), a.getMaxRating());
+                assertEquals(e.getAvgRating(), a.getAvgRating(), 1e-9);
+                assertEquals(e.getMinCrewSize(), a.getMinCrewSize());
+                assertEquals(e.getMaxCrewSize(), a.getMaxCrewSize());
+                assertEquals(e.getAvgCrewSize(), a.getAvgCrewSize(), 1e-9);
+            }
+        }
+    }
+}
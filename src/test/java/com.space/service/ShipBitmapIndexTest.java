@@ -0,0 +1,115 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipBitmapIndexTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipBitmapIndex bitmapIndex;
+
+    private final Random random = new Random(2800);
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    @Test
+    public void bitmapsResolveSameShipsAsDatabase() {
+        Ship ship = new Ship(null, "Zephyr Nomad", "Kepler", ShipType.MILITARY, new Date(32998274577071L), false, 0.5, 10);
+        ship.setRating(ship.calculateRating());
+        shipService.saveShip(ship);
+        shipService.deleteShip(3L);
+
+        for (int i = 0; i < 300; i++) {
+            ShipFilter filter = randomFilter();
+            List<Ship> fromDatabase = shipService.getAllShips(shipService.filterBy(filter),
+                    PageRequest.of(0, 1000, Sort.by("id")));
+
+            assertEquals(Long.valueOf(fromDatabase.size()), bitmapIndex.count(filter));
+            assertEquals(ids(fromDatabase), toList(bitmapIndex.candidates(filter)));
+            assertEquals(fromDatabase.size(), shipService.countShips(filter));
+        }
+    }
+
+    @Test
+    public void filtersOutsideBitmapsAreNotAnswered() {
+        ShipFilter filter = new ShipFilter();
+        filter.setShipType(ShipType.MERCHANT);
+        filter.setMinSpeed(0.5);
+
+        assertNull(bitmapIndex.count(filter));
+        assertEquals(shipService.countShips(shipService.filterBy(filter)), shipService.countShips(filter));
+    }
+
+    private ShipFilter randomFilter() {
+        ShipFilter filter = new ShipFilter();
+        if (random.nextInt(2) == 0) {
+            filter.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+        }
+        if (random.nextInt(2) == 0) {
+            filter.setIsUsed(random.nextBoolean());
+        }
+        if (random.nextInt(2) == 0) {
+            filter.setAfter(yearStart(2985 + random.nextInt(35)) + random.nextInt(3) * 86400000L * 100 - random.nextInt(2));
+        }
+        if (random.nextInt(2) == 0) {
+            filter.setBefore(yearStart(2990 + random.nextInt(30)) + random.nextInt(3) * 86400000L * 100 - random.nextInt(2));
+        }
+        return filter;
+    }
+
+    private static long yearStart(int year) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    private static List<Long> ids(List<Ship> ships) {
+        List<Long> result = new ArrayList<>();
+        for (Ship ship : ships) {
+            result.add(ship.getId());
+        }
+        return result;
+    }
+
+    private static List<Long> toList(RoaringBitmap bitmap) {
+        List<Long> result = new ArrayList<>();
+        for (int id : bitmap) {
+            result.add((long) id);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipCacheTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void shipByIdIsServedFromSecondLevelCache() {
+        shipService.getShipById(5L);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(shipService.getShipById(5L).isPresent());
+        assertEquals("повторное чтение корабля не должно идти в БД", statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    public void cachedQueriesAreInvalidatedOnWrites() {
+        Specification<Ship> merchants = shipService.filterByShipType(ShipType.MERCHANT);
+
+        long before = shipService.countShips(merchants);
+        shipService.getAllShips(merchants, PageRequest.of(0, 50, Sort.by("id")));
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(before, shipService.countShips(merchants));
+        shipService.getAllShips(merchants, PageRequest.of(0, 50, Sort.by("id")));
+        assertEquals("повторный запрос должен обслуживаться кэшем запросов", statements, statistics.getPrepareStatementCount());
+
+        Ship ship = new Ship(null, "Cached", "Earth", ShipType.MERCHANT, new Date(32998274577071L), false, 0.5, 10);
+        ship.setRating(ship.calculateRating());
+        shipService.saveShip(ship);
+        assertEquals(before + 1, shipService.countShips(merchants));
+        assertEquals(before + 1, shipService.getAllShips(merchants, PageRequest.of(0, 50, Sort.by("id"))).size());
+
+        Ship saved = shipService.getShipById(ship.getId()).get();
+        saved.setShipType(ShipType.MILITARY);
+        shipService.saveShip(saved);
+        assertEquals(before, shipService.countShips(merchants));
+        assertEquals(ShipType.MILITARY, shipService.getShipById(ship.getId()).get().getShipType());
+
+        shipService.deleteShip(ship.getId());
+        assertEquals(before, shipService.countShips(merchants));
+        assertFalse(shipService.getShipById(ship.getId()).isPresent());
+    }
+}
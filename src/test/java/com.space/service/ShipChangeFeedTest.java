@@ -0,0 +1,176 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipChange;
+import com.space.model.ShipFilter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@TestPropertySource(properties = {"ship.changes.bufferSize=2", "ship.changes.maxSubscribers=2"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipChangeFeedTest {
+
+    @Autowired
+    private ShipChangeFeed feed;
+
+    @Test
+    public void slowSubscriberIsEvictedAndOthersKeepReceiving() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        TestSink slow = new TestSink(release, evicted);
+        TestSink fast = new TestSink(null, null);
+        ShipChangeFeed.Subscription slowSubscription = feed.subscribe(ship -> true, slow);
+        ShipChangeFeed.Subscription fastSubscription = feed.subscribe(ship -> true, fast);
+        try {
+            try {
+                feed.subscribe(ship -> true, new TestSink(null, null));
+                fail("лимит подписчиков должен соблюдаться");
+            } catch (RejectedExecutionException expected) {
+            }
+
+            for (int i = 0; i < 10; i++) {
+                feed.onChange(ShipChange.deleted((long) i));
+                Thread.sleep(5);
+            }
+            // the slow sink is still stuck in its write, yet publishing went on and it is already dropped
+            assertEquals(1, feed.stats().get("subscribers"));
+            assertFalse("публикующий поток не должен закрывать медленного подписчика", slow.closed.get());
+            release.countDown();
+            assertTrue("медленный подписчик должен быть отключен", evicted.await(5, TimeUnit.SECONDS));
+            assertTrue(slow.evicted.get());
+            assertTrue("закрывать подписчика должен поток рассылки", slow.closedBy.startsWith("ship-changes-"));
+
+            for (int attempt = 0; attempt < 100 && fast.received.get() < 10; attempt++) {
+                Thread.sleep(20);
+            }
+            assertEquals(10, fast.received.get());
+            assertFalse(fast.closed.get());
+            assertEquals(1, feed.stats().get("subscribers"));
+        } finally {
+            release.countDown();
+            slowSubscription.cancel();
+            fastSubscription.cancel();
+        }
+    }
+
+    @Test
+    public void filterSelectsShips() throws Exception {
+        TestSink sink = new TestSink(null, null);
+        ShipChangeFeed.Subscription subscription = feed.subscribe(ship -> "Earth".equals(ship.getPlanet()), sink);
+        try {
+            Ship mars = new Ship();
+            mars.setPlanet("Mars");
+            Ship earth = new Ship();
+            earth.setPlanet("Earth");
+            feed.onChange(ShipChange.created(mars));
+            feed.onChange(ShipChange.created(earth));
+            feed.onChange(ShipChange.bulk());
+
+            for (int attempt = 0; attempt < 100 && sink.received.get() < 2; attempt++) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(50);
+            assertEquals(2, sink.received.get());
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    // the filter compares names and planets without regard to case, and a ship that moves out of it is announced
+    @Test
+    public void shipLeavingTheFilterIsAnnounced() throws Exception {
+        ShipFilter filter = new ShipFilter();
+        filter.setPlanet("earth");
+        TestSink sink = new TestSink(null, null);
+        ShipChangeFeed.Subscription subscription = feed.subscribe(filter::matches, sink);
+        try {
+            Ship earth = new Ship();
+            earth.setId(1L);
+            earth.setPlanet("Earth");
+            Ship mars = new Ship();
+            mars.setId(1L);
+            mars.setPlanet("Mars");
+            Ship venus = new Ship();
+            venus.setId(1L);
+            venus.setPlanet("Venus");
+            feed.onChange(ShipChange.created(earth));
+            feed.onChange(ShipChange.updated(earth, mars));
+            feed.onChange(ShipChange.updated(mars, venus));
+
+            for (int attempt = 0; attempt < 100 && sink.received.get() < 2; attempt++) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(50);
+            assertEquals(Arrays.asList(ShipChange.Type.CREATED, ShipChange.Type.LEFT), sink.types);
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    private static class TestSink implements ShipChangeFeed.Sink {
+        private final CountDownLatch release;
+        private final CountDownLatch evictedLatch;
+        private final AtomicInteger received = new AtomicInteger();
+        private final List<ShipChange.Type> types = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        private volatile String closedBy;
+
+        TestSink(CountDownLatch release, CountDownLatch evictedLatch) {
+            this.release = release;
+            this.evictedLatch = evictedLatch;
+        }
+
+        @Override
+        public void send(ShipChange change) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            types.add(change.getType());
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close(boolean evicted) {
+            closedBy = Thread.currentThread().getName();
+            closed.set(true);
+            this.evicted.set(evicted);
+            if (evictedLatch != null) {
+                evictedLatch.countDown();
+            }
+        }
+    }
+}
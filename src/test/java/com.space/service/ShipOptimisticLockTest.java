@@ -0,0 +1,161 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipOptimisticLockTest {
+
+    private static final long[] HOT_SET = {1L, 2L, 3L};
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    //test1
+    @Test
+    public void staleSaveIsRejectedTest() {
+        Ship stale = shipService.getShipById(5L).get();
+        Ship changes = new Ship();
+        changes.setCrewSize(100);
+        Ship updated = shipService.updateShip(5L, changes).get();
+        assertEquals("обновление должно увеличить версию", stale.getVersion() + 1, updated.getVersion());
+
+        stale.setCrewSize(200);
+        try {
+            shipRepository.save(stale);
+            fail("сохранение устаревшей копии должно завершиться конфликтом");
+        } catch (OptimisticLockingFailureException expected) {
+            // the concurrent update wins
+        }
+        assertEquals(100, shipService.getShipById(5L).get().getCrewSize().intValue());
+    }
+
+    //test2
+    @Test
+    public void retryIsBoundedTest() {
+        long conflicts = (Long) optimisticRetry.stats().get("conflicts");
+        int maxAttempts = (Integer) optimisticRetry.stats().get("maxAttempts");
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = optimisticRetry.run(() -> {
+            if (attempts.incrementAndGet() < maxAttempts) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+        assertEquals("done", result);
+        assertEquals(conflicts + maxAttempts - 1, optimisticRetry.stats().get("conflicts"));
+
+        attempts.set(0);
+        try {
+            optimisticRetry.run(() -> {
+                attempts.incrementAndGet();
+                throw new OptimisticLockingFailureException("conflict");
+            });
+            fail("после исчерпания попыток конфликт должен пробрасываться");
+        } catch (OptimisticLockingFailureException expected) {
+            assertEquals(maxAttempts, attempts.get());
+        }
+    }
+
+    //test3
+    @Test
+    public void recomputeRatingTest() {
+        Ship before = shipService.getShipById(5L).get();
+        Ship recomputed = shipService.recomputeRating(5L).get();
+
+        assertEquals(before.calculateRating(shipService.getReferenceYear()), recomputed.getRating(), 0);
+        assertEquals(before.getVersion() + 1, shipService.getShipById(5L).get().getVersion());
+        assertTrue(recomputed.getChangeVersion() > before.getChangeVersion());
+        assertFalse(shipService.recomputeRating(1000L).isPresent());
+    }
+
+    // many writers over a small hot set: every increment lands exactly once, conflicts only cost a retry
+    //test4
+    @Test
+    public void hotSetContentionLosesNoUpdatesTest() throws Exception {
+        int threads = 8;
+        int incrementsPerThread = 25;
+        long[] initial = new long[HOT_SET.length];
+        for (int i = 0; i < HOT_SET.length; i++) {
+            initial[i] = shipService.getShipById(HOT_SET[i]).get().getCrewSize();
+        }
+
+        AtomicLongArray applied = new AtomicLongArray(HOT_SET.length);
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        int slot = (offset + i) % HOT_SET.length;
+                        while (true) {
+                            Ship current = shipService.getShipById(HOT_SET[slot]).get();
+                            Ship changes = new Ship();
+                            changes.setCrewSize(current.getCrewSize() + 1);
+                            if (shipService.updateShip(HOT_SET[slot], changes, current.getChangeVersion()).isPresent()) {
+                                applied.incrementAndGet(slot);
+                                break;
+                            }
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = 0;
+        for (int i = 0; i < HOT_SET.length; i++) {
+            total += applied.get(i);
+            assertEquals("ни одно увеличение не должно потеряться",
+                    initial[i] + applied.get(i), shipService.getShipById(HOT_SET[i]).get().getCrewSize().longValue());
+        }
+        assertEquals(threads * incrementsPerThread, total);
+    }
+}
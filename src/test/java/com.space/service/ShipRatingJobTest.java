@@ -0,0 +1,190 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.RatingJob;
+import com.space.model.RatingJobChunk;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGroupStats;
+import com.space.model.ShipGrouping;
+import com.space.repository.RatingJobChunkRepository;
+import com.space.repository.RatingJobRepository;
+import com.space.repository.ShipRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@TestPropertySource(properties = "ship.rating.chunkSize=5")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipRatingJobTest {
+
+    @Autowired
+    private ShipRatingJob ratingJob;
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Autowired
+    private RatingJobRepository jobRepository;
+
+    @Autowired
+    private RatingJobChunkRepository chunkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    @After
+    public void restoreReferenceYear() {
+        shipService.setReferenceYear(Ship.CURRENT_YEAR);
+    }
+
+    @Test
+    public void recomputesEveryRatingInChunks() throws Exception {
+        Map<String, Object> started = ratingJob.start(3050);
+        assertEquals(8, started.get("chunks"));
+        assertEquals(3050, shipService.getReferenceYear());
+
+        Map<String, Object> progress = await();
+        assertEquals("DONE", progress.get("status"));
+        assertEquals(8L, progress.get("completedChunks"));
+        assertEquals(40L, progress.get("updatedShips"));
+
+        for (Ship ship : shipRepository.findAll()) {
+            assertEquals("рейтинг должен быть пересчитан для нового года", ship.calculateRating(3050), ship.getRating(), 0);
+        }
+    }
+
+    @Test
+    public void resumesOnlyPendingChunks() throws Exception {
+        ratingJob.start(3050);
+        Map<String, Object> first = await();
+
+        RatingJob job = jobRepository.findById((Long) first.get("jobId")).get();
+        job.setStatus(RatingJob.Status.RUNNING);
+        jobRepository.save(job);
+        List<RatingJobChunk> chunks = chunkRepository.findAll();
+        RatingJobChunk pending = chunks.get(0);
+        pending.setUpdated(null);
+        chunkRepository.save(pending);
+        shipRepository.updateRatings(shipService.filterByIdRange(pending.getStartId(), pending.getEndId()), Ship.CURRENT_YEAR);
+        shipRepository.updateRatings(shipService.filterByIdRange(chunks.get(1).getStartId(), chunks.get(1).getEndId()), Ship.CURRENT_YEAR);
+
+        ratingJob.start(3050);
+        Map<String, Object> resumed = await();
+
+        assertEquals(first.get("jobId"), resumed.get("jobId"));
+        assertEquals("DONE", resumed.get("status"));
+        for (Ship ship : shipRepository.findAll()) {
+            boolean inPending = ship.getId() >= pending.getStartId() && ship.getId() <= pending.getEndId();
+            boolean inSkipped = ship.getId() >= chunks.get(1).getStartId() && ship.getId() <= chunks.get(1).getEndId();
+            if (inPending) {
+                assertEquals(ship.calculateRating(3050), ship.getRating(), 0);
+            } else if (inSkipped) {
+                assertEquals("завершённые части не должны пересчитываться повторно", ship.calculateRating(), ship.getRating(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void newJobForAnotherYearCancelsUnfinishedOne() throws Exception {
+        ratingJob.start(3050);
+        Map<String, Object> first = await();
+        RatingJob job = jobRepository.findById((Long) first.get("jobId")).get();
+        job.setStatus(RatingJob.Status.RUNNING);
+        jobRepository.save(job);
+
+        ratingJob.start(3060);
+        Map<String, Object> second = await();
+
+        assertNotEquals(first.get("jobId"), second.get("jobId"));
+        assertEquals(RatingJob.Status.CANCELLED, jobRepository.findById((Long) first.get("jobId")).get().getStatus());
+        for (Ship ship : shipRepository.findAll()) {
+            assertEquals(ship.calculateRating(3060), ship.getRating(), 0);
+        }
+    }
+
+    @Test
+    public void referenceYearIsRestoredFromLatestJob() throws Exception {
+        ratingJob.start(3050);
+        await();
+        shipService.setReferenceYear(Ship.CURRENT_YEAR);
+
+        ratingJob.restoreReferenceYear();
+        assertEquals("год должен восстанавливаться из последнего пересчёта", 3050, shipService.getReferenceYear());
+
+        RatingJob cancelled = jobRepository.save(new RatingJob(3060, 0));
+        cancelled.setStatus(RatingJob.Status.CANCELLED);
+        jobRepository.save(cancelled);
+        ratingJob.restoreReferenceYear();
+        assertEquals("отменённый пересчёт не должен менять год", 3050, shipService.getReferenceYear());
+    }
+
+    // a chunk's ships reach the indexes when the chunk commits, not with one rebuild after the whole job
+    @Test
+    public void chunkRatingsReachIndexesWhenChunkCommits() {
+        Long from = shipRepository.findMinId();
+        ShipFilter all = new ShipFilter();
+        List<ShipGroupStats> before = shipService.aggregateShips(all, ShipGrouping.SHIP_TYPE);
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertEquals(5, shipService.recomputeRatings(from, from + 4, 3050));
+            assertSameRatings("до фиксации индексы должны показывать старые рейтинги",
+                    before, shipService.aggregateShips(all, ShipGrouping.SHIP_TYPE));
+            return null;
+        });
+
+        List<ShipGroupStats> indexed = shipService.aggregateShips(all, ShipGrouping.SHIP_TYPE);
+        assertSameRatings("после фиксации индексы должны совпадать с базой",
+                shipRepository.aggregate(null, ShipGrouping.SHIP_TYPE), indexed);
+        for (Ship ship : shipRepository.findAllById(Arrays.asList(from, from + 4))) {
+            assertEquals(ship.calculateRating(3050), ship.getRating(), 0);
+        }
+    }
+
+    private static void assertSameRatings(String message, List<ShipGroupStats> expected, List<ShipGroupStats> actual) {
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(message, expected.get(i).getMinRating(), actual.get(i).getMinRating(), 1e-9);
+            assertEquals(message, expected.get(i).getAvgRating(), actual.get(i).getAvgRating(), 1e-9);
+            assertEquals(message, expected.get(i).getMaxRating(), actual.get(i).getMaxRating(), 1e-9);
+        }
+    }
+
+    private Map<String, Object> await() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (ratingJob.isRunning()) {
+            assertTrue("пересчёт рейтинга не завершился вовремя", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        return ratingJob.progress().get();
+    }
+}
@@ -0,0 +1,126 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.config.ReadWriteRoutingDataSource;
+import com.space.model.Ship;
+import com.space.model.ShipDates;
+import com.space.model.ShipFilter;
+import com.space.model.ShipGrouping;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipTransactionTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+    }
+
+    //test1
+    @Test
+    public void readsUseReadOnlyConnectionsTest() {
+        Map<String, Object> before = routingDataSource.snapshot();
+        ShipFilter filter = new ShipFilter();
+        filter.setName("a");
+        shipService.countShips(shipService.filterBy(filter));
+        shipService.aggregateShips(filter, ShipGrouping.PLANET);
+
+        assertEquals("каждое чтение должно взять одно соединение только для чтения",
+                2L, connections(before, "readConnections"));
+        assertEquals(0L, connections(before, "writeConnections"));
+    }
+
+    // the delta bound is the primary's committed version, so the rows below it must come from the primary as well
+    //test5
+    @Test
+    public void deltaReadsArePinnedToPrimaryTest() {
+        ShipFilter filter = new ShipFilter();
+        filter.setName("b");
+        Map<String, Object> before = routingDataSource.snapshot();
+        shipService.getChangesSince(0, null, 10);
+        ReadWriteRoutingDataSource.onPrimary(() -> shipService.aggregateShips(filter, ShipGrouping.PLANET));
+
+        assertEquals("дельта и помеченные чтения должны идти на основной сервер",
+                2L, connections(before, "pinnedReadConnections"));
+        assertEquals(0L, connections(before, "readConnections"));
+        assertEquals(0L, connections(before, "writeConnections"));
+    }
+
+    // the lazy proxy only checks a connection out for the first statement
+    //test2
+    @Test
+    public void cachedReadTakesNoConnectionTest() {
+        shipService.getShipById(5L);
+        Map<String, Object> before = routingDataSource.snapshot();
+        shipService.getShipById(5L);
+
+        assertEquals("чтение из кэша не должно брать соединение", 0L, connections(before, "readConnections"));
+        assertEquals(0L, connections(before, "writeConnections"));
+    }
+
+    //test3
+    @Test
+    public void writeIsOneTransactionTest() {
+        Map<String, Object> before = routingDataSource.snapshot();
+        Ship changes = new Ship();
+        changes.setCrewSize(100);
+        shipService.updateShip(5L, changes);
+        shipService.deleteShip(7L);
+
+        assertEquals("каждая запись должна выполняться в одной транзакции",
+                2L, connections(before, "writeConnections"));
+        assertEquals(0L, connections(before, "readConnections"));
+    }
+
+    // the in-process indexes answer counts on their own, so a rolled-back insert must never reach them
+    //test4
+    @Test
+    public void rolledBackWriteLeavesIndexesTest() {
+        ShipFilter military = new ShipFilter();
+        military.setShipType(ShipType.MILITARY);
+        long before = shipService.countShips(military);
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            shipService.saveShip(new Ship(null, "Rollback", "Mars", ShipType.MILITARY,
+                    new Date(ShipDates.startOfYear(3000)), false, 0.5, 100));
+            assertEquals("индексы не должны видеть незафиксированную запись", before, shipService.countShips(military));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals(before, shipService.countShips(military));
+        assertEquals(before, shipService.countShips(shipService.filterBy(military)));
+    }
+
+    private long connections(Map<String, Object> before, String key) {
+        return (Long) routingDataSource.snapshot().get(key) - (Long) before.get(key);
+    }
+}
@@ -0,0 +1,157 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipWritePathTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        shipService.reindex();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    // one DELETE by id, which runs on the session's connection and is not among Hibernate's statements, one insert
+    // for the change version and one for the tombstone; nothing is read, whether the ship is cached or not
+    @Test
+    public void deleteIsTombstonePlusDelete() {
+        long total = shipService.countShips((Specification<Ship>) null);
+        statistics.clear();
+        assertTrue(shipService.deleteShip(7L));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertOtherShipsStayCached();
+        assertEquals(total - 1, shipService.countShips((Specification<Ship>) null));
+
+        evictShips();
+        assertTrue(shipService.deleteShip(9L));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertFalse(shipService.deleteShip(7L));
+        assertFalse(shipService.getShipById(7L).isPresent());
+        assertEquals(Arrays.asList(7L, 9L), shipService.getChangesSince(1, null, 10).getDeleted());
+    }
+
+    // the cached ship is dirty checked: one insert takes the change version, one update checks @Version;
+    // a ship that is not cached is read first, since the change event carries its previous state
+    @Test
+    public void updateIsDirtyChecked() {
+        Ship changes = new Ship();
+        changes.setSpeed(0.5);
+        changes.setCrewSize(100);
+
+        Ship updated = shipService.updateShip(7L, changes).get();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0.5, updated.getSpeed(), 0);
+        assertEquals(100, updated.getCrewSize().intValue());
+        assertEquals(updated.calculateRating(), updated.getRating(), 0);
+        assertEquals(100, shipService.getShipById(7L).get().getCrewSize().intValue());
+        assertOtherShipsStayCached();
+
+        evictShips();
+        assertTrue(shipService.updateShip(9L, changes).isPresent());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+
+        assertFalse(shipService.updateShip(4242L, changes).isPresent());
+    }
+
+    // each bulk write is a fixed number of set-based statements, and only the ships it wrote are read back
+    @Test
+    public void bulkWritesAreSetBased() {
+        ShipFilter military = new ShipFilter();
+        military.setShipType(ShipType.MILITARY);
+        long matching = shipService.countShips(military);
+        Ship changes = new Ship();
+        changes.setCrewSize(7);
+
+        statistics.clear();
+        assertEquals(matching, shipService.updateShips(military, changes));
+        // probe, change version, update, one read-back chunk
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(matching, statistics.getEntityLoadCount());
+
+        ShipFilter updated = new ShipFilter();
+        updated.setMinCrewSize(7);
+        updated.setMaxCrewSize(7);
+        assertEquals(matching, shipService.countShips(updated));
+
+        statistics.clear();
+        assertEquals(matching, shipService.deleteShips(military));
+        // probe, change version, stamp, tombstones, delete, one tombstone chunk
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Ship.class.getName()).getLoadCount());
+        assertEquals(0, shipService.countShips(military));
+        assertEquals(matching, shipService.getChangesSince(1, null, 100).getDeleted().size());
+    }
+
+    // a write that matches nothing must not announce a new version, or every fleet tag would go stale
+    @Test
+    public void writesWithoutRowsKeepTheVersion() {
+        long version = shipService.getCommittedVersion();
+        ShipFilter nothing = new ShipFilter();
+        nothing.setName("нет такого корабля");
+        Ship changes = new Ship();
+        changes.setCrewSize(100);
+
+        assertFalse(shipService.deleteShip(4242L));
+        assertFalse(shipService.updateShip(4242L, changes).isPresent());
+        assertEquals(0, shipService.updateShips(nothing, changes));
+        assertEquals(0, shipService.deleteShips(nothing));
+        assertEquals(version, shipService.getCommittedVersion());
+
+        assertTrue(shipService.deleteShip(7L));
+        assertEquals(version + 1, shipService.getCommittedVersion());
+    }
+
+    private void evictShips() {
+        entityManagerFactory.getCache().evict(Ship.class);
+        statistics.clear();
+    }
+
+    // a single-ship write must not evict the rest of the Ship region
+    private void assertOtherShipsStayCached() {
+        statistics.clear();
+        assertTrue(shipService.getShipById(8L).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+}